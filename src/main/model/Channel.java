@@ -0,0 +1,53 @@
+package model;
+
+// Represents one of the four instrument channels of a track: pulse 1, pulse 2, triangle, and noise
+// The ordinal of a channel is its index into arrays of per-channel data, and its key names it in saved data
+public enum Channel {
+    PULSE1("pulse1", "Pulse 1"),
+    PULSE2("pulse2", "Pulse 2"),
+    TRIANGLE("triangle", "Triangle"),
+    NOISE("noise", "Noise");
+
+    public static final int NUM_CHANNELS = 4;
+    private static final Channel[] CHANNELS = values();
+
+    private final String key;
+    private final String displayName;
+
+    // EFFECTS: constructs a channel with the given key and display name
+    Channel(String key, String displayName) {
+        this.key = key;
+        this.displayName = displayName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // REQUIRES: 0 <= index < NUM_CHANNELS
+    // EFFECTS: returns the channel with the given ordinal, without copying the array of values
+    public static Channel fromIndex(int index) {
+        return CHANNELS[index];
+    }
+
+    // EFFECTS: returns the channel with the given key;
+    //          throws IllegalArgumentException if no channel has the given key
+    public static Channel fromKey(String key) {
+        for (Channel channel : CHANNELS) {
+            if (channel.key.equals(key)) {
+                return channel;
+            }
+        }
+        throw new IllegalArgumentException("No channel with key: " + key);
+    }
+
+    // EFFECTS: returns the display name of the channel
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,316 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Represents the undo and redo history of the edits made to a track
+// Edits are recorded as deltas: for every row an edit changed, the event index before and after the change, and for
+// edits that resize the track, the number of bars before and after. Undoing or redoing an edit only touches the rows
+// it changed. Single cell edits made in quick succession to neighbouring rows of the same channel are coalesced into
+// one edit, as long as they are made within the coalescing window of the first edit of the group. The oldest edits are
+// forgotten once the history uses more than its memory budget, except for the newest edit, which can always be undone
+// even if it is larger than the whole budget
+public class EditHistory {
+    public static final long DEFAULT_MEMORY_BUDGET = 4L * 1024 * 1024;
+    public static final long DEFAULT_COALESCE_MILLIS = 1000;
+    private static final int BYTES_PER_CHANGED_ROW = 8;
+    private static final int BYTES_PER_CHANGE = 32;
+
+    private final long memoryBudget;
+    private final long coalesceMillis;
+    private final Deque<Edit> undoStack;
+    private final Deque<Edit> redoStack;
+    private long memoryUsed;
+
+    private Edit curEdit;
+    private int editDepth;
+    private Edit lastRecordedEdit;
+
+    // EFFECTS: constructs an empty history with the default memory budget and coalescing window
+    public EditHistory() {
+        this(DEFAULT_MEMORY_BUDGET, DEFAULT_COALESCE_MILLIS);
+    }
+
+    // REQUIRES: memoryBudget > 0, coalesceMillis >= 0
+    // EFFECTS: constructs an empty history that keeps about memoryBudget bytes of edits and coalesces cell edits made
+    //          less than coalesceMillis milliseconds after the first edit of their group, or never coalesces them if
+    //          coalesceMillis is 0
+    public EditHistory(long memoryBudget, long coalesceMillis) {
+        this.memoryBudget = memoryBudget;
+        this.coalesceMillis = coalesceMillis;
+        undoStack = new ArrayDeque<>();
+        redoStack = new ArrayDeque<>();
+    }
+
+    // EFFECTS: returns true if there is an edit that can be undone
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    // EFFECTS: returns true if there is an undone edit that can be redone
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    // EFFECTS: returns the approximate number of bytes used by the recorded edits
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets every recorded edit
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        memoryUsed = 0;
+        lastRecordedEdit = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts recording an edit, edits started while another edit is being recorded become part of it;
+    //          isCellEdit is true if the edit only changes a single cell and can be coalesced
+    void beginEdit(boolean isCellEdit) {
+        if (editDepth == 0) {
+            curEdit = new Edit(isCellEdit);
+        }
+        editDepth++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that the given rows of the channel with the given ordinal changed from the event indices in
+    //          before to the event indices in after, starting at startRow, as part of the current edit
+    void recordRows(int channel, int startRow, short[] before, short[] after) {
+        int numChanged = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != after[i]) {
+                numChanged++;
+            }
+        }
+        if (numChanged == 0) {
+            return;
+        }
+        int[] rows = new int[numChanged];
+        short[] oldIndices = new short[numChanged];
+        short[] newIndices = new short[numChanged];
+        int pos = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != after[i]) {
+                rows[pos] = startRow + i;
+                oldIndices[pos] = before[i];
+                newIndices[pos] = after[i];
+                pos++;
+            }
+        }
+        curEdit.addChange(new RowsChange(channel, rows, oldIndices, newIndices));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that the track was resized from oldNumBars to newNumBars bars as part of the current edit
+    void recordBars(int oldNumBars, int newNumBars) {
+        if (oldNumBars != newNumBars) {
+            curEdit.addChange(new BarsChange(oldNumBars, newNumBars));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: finishes recording the current edit if it is the outermost one, coalescing it with the previous edit
+    //          if both are cell edits to neighbouring rows of the same channel made within the coalescing window of
+    //          the first edit of the previous edit's group, and forgets the redo history and the oldest edits if the
+    //          memory budget is exceeded
+    void endEdit() {
+        editDepth--;
+        if (editDepth > 0 || curEdit.changes.isEmpty()) {
+            return;
+        }
+        clearRedo();
+        if (canCoalesce(curEdit)) {
+            lastRecordedEdit.changes.addAll(curEdit.changes);
+            lastRecordedEdit.firstRow = Math.min(lastRecordedEdit.firstRow, curEdit.firstRow);
+            lastRecordedEdit.lastRow = Math.max(lastRecordedEdit.lastRow, curEdit.lastRow);
+        } else {
+            undoStack.push(curEdit);
+            lastRecordedEdit = curEdit;
+        }
+        memoryUsed += curEdit.getMemory();
+        curEdit = null;
+        trimToBudget();
+    }
+
+    // MODIFIES: this, track
+    // EFFECTS: if there is an edit to undo, reverts track to the state before the edit and returns true,
+    //          otherwise returns false
+    boolean undo(Track track) {
+        if (undoStack.isEmpty()) {
+            return false;
+        }
+        Edit edit = undoStack.pop();
+        List<Change> changes = edit.changes;
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            changes.get(i).undo(track);
+        }
+        redoStack.push(edit);
+        lastRecordedEdit = null;
+        return true;
+    }
+
+    // MODIFIES: this, track
+    // EFFECTS: if there is an undone edit to redo, applies it to track again and returns true,
+    //          otherwise returns false
+    boolean redo(Track track) {
+        if (redoStack.isEmpty()) {
+            return false;
+        }
+        Edit edit = redoStack.pop();
+        for (Change change : edit.changes) {
+            change.redo(track);
+        }
+        undoStack.push(edit);
+        lastRecordedEdit = null;
+        return true;
+    }
+
+    // EFFECTS: returns true if edit can be merged into the most recently recorded edit
+    private boolean canCoalesce(Edit edit) {
+        if (!edit.isCellEdit || lastRecordedEdit == null || !lastRecordedEdit.isCellEdit
+                || undoStack.peek() != lastRecordedEdit) {
+            return false;
+        }
+        return edit.startMillis - lastRecordedEdit.startMillis < coalesceMillis
+                && edit.channel == lastRecordedEdit.channel
+                && edit.firstRow >= lastRecordedEdit.firstRow - 1 && edit.firstRow <= lastRecordedEdit.lastRow + 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets every undone edit
+    private void clearRedo() {
+        for (Edit edit : redoStack) {
+            memoryUsed -= edit.getMemory();
+        }
+        redoStack.clear();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets the oldest edits until the history fits in its memory budget or only the newest edit is left
+    private void trimToBudget() {
+        while (memoryUsed > memoryBudget && undoStack.size() > 1) {
+            Edit oldest = undoStack.removeLast();
+            memoryUsed -= oldest.getMemory();
+            if (oldest == lastRecordedEdit) {
+                lastRecordedEdit = null;
+            }
+        }
+    }
+
+    // Represents one undoable edit, made of the changes it made in the order they were made
+    // For a cell edit, or a group of coalesced cell edits, it also keeps the channel and the run of rows it changed
+    private static class Edit {
+        private final boolean isCellEdit;
+        private final List<Change> changes;
+        private final long startMillis;
+        private int channel;
+        private int firstRow;
+        private int lastRow;
+
+        // EFFECTS: constructs an empty edit made now
+        Edit(boolean isCellEdit) {
+            this.isCellEdit = isCellEdit;
+            changes = new ArrayList<>(1);
+            startMillis = System.currentTimeMillis();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: records the channel and row changed by the change of a cell edit, and adds the change
+        void addChange(Change change) {
+            if (isCellEdit && change instanceof RowsChange) {
+                RowsChange rowsChange = (RowsChange) change;
+                channel = rowsChange.channel;
+                firstRow = rowsChange.rows[0];
+                lastRow = rowsChange.rows[rowsChange.rows.length - 1];
+            }
+            changes.add(change);
+        }
+
+        // EFFECTS: returns the approximate number of bytes used by the changes in this edit
+        long getMemory() {
+            long memory = 0;
+            for (Change change : changes) {
+                memory += change.getMemory();
+            }
+            return memory;
+        }
+    }
+
+    // Represents a single change to a track that can be undone and redone
+    private interface Change {
+        // MODIFIES: track
+        // EFFECTS: reverts the change
+        void undo(Track track);
+
+        // MODIFIES: track
+        // EFFECTS: applies the change again
+        void redo(Track track);
+
+        // EFFECTS: returns the approximate number of bytes used by the change
+        long getMemory();
+    }
+
+    // Represents a change to some of the rows of a channel
+    private static class RowsChange implements Change {
+        private final int channel;
+        private final int[] rows;
+        private final short[] oldIndices;
+        private final short[] newIndices;
+
+        // EFFECTS: constructs a change of the given rows of the channel with the given ordinal
+        RowsChange(int channel, int[] rows, short[] oldIndices, short[] newIndices) {
+            this.channel = channel;
+            this.rows = rows;
+            this.oldIndices = oldIndices;
+            this.newIndices = newIndices;
+        }
+
+        @Override
+        public void undo(Track track) {
+            track.restoreRows(channel, rows, oldIndices);
+        }
+
+        @Override
+        public void redo(Track track) {
+            track.restoreRows(channel, rows, newIndices);
+        }
+
+        @Override
+        public long getMemory() {
+            return BYTES_PER_CHANGE + (long) rows.length * BYTES_PER_CHANGED_ROW;
+        }
+    }
+
+    // Represents a change to the number of bars of a track
+    private static class BarsChange implements Change {
+        private final int oldNumBars;
+        private final int newNumBars;
+
+        // EFFECTS: constructs a change of the number of bars from oldNumBars to newNumBars
+        BarsChange(int oldNumBars, int newNumBars) {
+            this.oldNumBars = oldNumBars;
+            this.newNumBars = newNumBars;
+        }
+
+        @Override
+        public void undo(Track track) {
+            track.restoreNumberOfBars(oldNumBars);
+        }
+
+        @Override
+        public void redo(Track track) {
+            track.restoreNumberOfBars(newNumBars);
+        }
+
+        @Override
+        public long getMemory() {
+            return BYTES_PER_CHANGE;
+        }
+    }
+}
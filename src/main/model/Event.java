@@ -3,24 +3,49 @@ package model;
 import org.json.JSONObject;
 import persistence.Writable;
 
-import java.util.Objects;
-
 // Represents an event that can be placed inside a track
 // Can be a note, a rest, or a blank event
 // Notes have a pitch and can be staccato or not staccato
-public class Event implements Writable {
+// Events are immutable and there is exactly one instance of each distinct event, so events can be shared between
+// rows and compared by identity. Each instance has a small index that channels store instead of a reference
+public final class Event implements Writable {
     public static final int NUM_OCTAVES = 5;
     public static final int MAX_PITCH = NUM_OCTAVES * 12;
+    public static final int NUM_EVENTS = 2 + 2 * MAX_PITCH;
+    private static final Event[] EVENTS = makeEvents();
+    public static final Event BLANK = EVENTS[0];
+    public static final Event REST = EVENTS[1];
+    private static final short[][] TRANSPOSE_TABLES = makeTransposeTables();
+
+    private final String type;
+    private final int pitch;
+    private final boolean isStaccato;
+    private final short index;
+
+    // EFFECTS: constructs an event with the given properties and index in the table of events
+    private Event(String type, int pitch, boolean isStaccato, int index) {
+        this.type = type;
+        this.pitch = pitch;
+        this.isStaccato = isStaccato;
+        this.index = (short) index;
+    }
 
-    private String type;
-    private int pitch;
-    private boolean isStaccato;
+    // REQUIRES: 1 <= pitch <= MAX_PITCH
+    // EFFECTS: returns the non-staccato note with the given pitch
+    public static Event note(int pitch) {
+        return EVENTS[1 + pitch];
+    }
 
-    // EFFECTS: constructs a blank event
-    public Event() {
-        type = "blank";
-        pitch = 0;
-        isStaccato = false;
+    // REQUIRES: 1 <= pitch <= MAX_PITCH
+    // EFFECTS: returns the note with the given pitch that is staccato if isStaccato is true
+    public static Event note(int pitch, boolean isStaccato) {
+        return EVENTS[1 + pitch + (isStaccato ? MAX_PITCH : 0)];
+    }
+
+    // REQUIRES: 0 <= index < NUM_EVENTS
+    // EFFECTS: returns the event with the given index
+    public static Event fromIndex(int index) {
+        return EVENTS[index];
     }
 
     public String getType() {
@@ -35,108 +60,100 @@ public class Event implements Writable {
         return isStaccato;
     }
 
-    // REQUIRES: 1 <= pitch <= MAX_PITCH
-    // MODIFIES: this
-    // EFFECTS: converts the event into a non-staccato note with the given pitch
-    public void makeNote(int pitch) {
-        type = "note";
-        this.pitch = pitch;
-        isStaccato = false;
+    // EFFECTS: returns the index of this event in the table of events, a number from 0 to NUM_EVENTS - 1
+    //          the indices never change, so files store events by index
+    public short getIndex() {
+        return index;
     }
 
-    // MODIFIES: this
-    // EFFECTS: converts the event into a rest
-    public void makeRest() {
-        type = "rest";
-        pitch = 0;
-        isStaccato = false;
+    // EFFECTS: returns true if the event is a note
+    public boolean isNote() {
+        return pitch != 0;
     }
 
-    // MODIFIES: this
-    // EFFECTS: converts the event into a blank
-    public void clear() {
-        type = "blank";
-        pitch = 0;
-        isStaccato = false;
+    // EFFECTS: if the event is a note, returns the same note made staccato if isStaccato is true or not staccato
+    //          otherwise, if the event is not a note, returns this
+    public Event withStaccato(boolean isStaccato) {
+        return isNote() ? note(pitch, isStaccato) : this;
     }
 
-    // MODIFIES: this
-    // EFFECTS: if the event is a note, make it staccato and return true, otherwise return false
-    public boolean makeStaccato() {
-        if (type.equals("note")) {
-            isStaccato = true;
-            return true;
-        } else {
-            return false;
+    // EFFECTS: if the event is a note: returns the canonical note transposed by numSemitones, moved by the fewest
+    //          octaves that put its pitch between 1 and MAX_PITCH, keeping whether it is staccato;
+    //          if the event is not a note, returns this
+    public Event transpose(int numSemitones) {
+        return isNote() ? note(wrapPitch(pitch + numSemitones), isStaccato) : this;
+    }
+
+    // EFFECTS: returns the table that maps the index of every event to the index of that event transposed by
+    //          numSemitones semitones, as transpose does; the tables for every transposition of at most MAX_PITCH
+    //          semitones are built when the class is initialized and shared by every thread, so they must not be
+    //          modified, and a new table is built for larger transpositions
+    static short[] transposeTable(int numSemitones) {
+        if (Math.abs(numSemitones) > MAX_PITCH) {
+            return makeTransposeTable(numSemitones);
         }
+        return TRANSPOSE_TABLES[numSemitones + MAX_PITCH];
     }
 
-    // MODIFIES: this
-    // EFFECTS: if the event is a note, make it not staccato and return true, otherwise return false
-    public boolean makeNotStaccato() {
-        if (type.equals("note")) {
-            isStaccato = false;
-            return true;
-        } else {
-            return false;
+    // EFFECTS: returns pitch moved by the fewest octaves that put it between 1 and MAX_PITCH
+    private static int wrapPitch(int pitch) {
+        if (pitch > MAX_PITCH) {
+            return pitch - (pitch - MAX_PITCH + 11) / 12 * 12;
+        } else if (pitch < 1) {
+            return pitch + (12 - pitch) / 12 * 12;
         }
+        return pitch;
     }
 
-    // MODIFIES: this
-    // EFFECTS: if the event is a note: transpose by numSemitones,
-    //          if the new pitch is below minPitch or above maxPitch,
-    //          keep adding or removing octaves until it is in the proper range
-    //          if the event is not a note, do nothing
-    public void transpose(int numSemitones) {
-        if (type.equals("note")) {
-            int newPitch = pitch + numSemitones;
-            while (newPitch > MAX_PITCH) {
-                newPitch -= 12;
-            }
-            while (newPitch < 1) {
-                newPitch += 12;
-            }
-            pitch = newPitch;
+    // EFFECTS: returns the transpose tables for every transposition from -MAX_PITCH to MAX_PITCH semitones,
+    //          indexed by the number of semitones plus MAX_PITCH
+    private static short[][] makeTransposeTables() {
+        short[][] tables = new short[2 * MAX_PITCH + 1][];
+        for (int numSemitones = -MAX_PITCH; numSemitones <= MAX_PITCH; numSemitones++) {
+            tables[numSemitones + MAX_PITCH] = makeTransposeTable(numSemitones);
         }
+        return tables;
     }
 
-    // MODIFIES: this
-    // EFFECTS: transpose the event up by an octave if it is a note and at least an octave below MAX_PITCH
-    public void transposeUpByOctave() {
-        transpose(12);
+    // EFFECTS: returns a new table that maps the index of every event to the index of that event transposed by
+    //          numSemitones semitones
+    private static short[] makeTransposeTable(int numSemitones) {
+        short[] table = new short[NUM_EVENTS];
+        for (Event event : EVENTS) {
+            table[event.index] = event.transpose(numSemitones).index;
+        }
+        return table;
     }
 
-    // MODIFIES: this
-    // EFFECTS: transpose the event down by an octave if it is a note and at least an octave above 1
-    public void transposeDownByOctave() {
-        transpose(-12);
+    // EFFECTS: returns the event transposed up by an octave as transpose does
+    public Event transposeUpByOctave() {
+        return transpose(12);
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        Event event = (Event) o;
-        return pitch == event.pitch
-                && isStaccato == event.isStaccato
-                && type.equals(event.type);
+    // EFFECTS: returns the event transposed down by an octave as transpose does
+    public Event transposeDownByOctave() {
+        return transpose(-12);
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(type, pitch, isStaccato);
+    // EFFECTS: returns the table of every distinct event: blank, rest, the non-staccato notes in order of pitch,
+    //          then the staccato notes in order of pitch, each at its own index
+    private static Event[] makeEvents() {
+        Event[] events = new Event[NUM_EVENTS];
+        events[0] = new Event("blank", 0, false, 0);
+        events[1] = new Event("rest", 0, false, 1);
+        for (int pitch = 1; pitch <= MAX_PITCH; pitch++) {
+            events[1 + pitch] = new Event("note", pitch, false, 1 + pitch);
+            events[1 + pitch + MAX_PITCH] = new Event("note", pitch, true, 1 + pitch + MAX_PITCH);
+        }
+        return events;
     }
 
     // EFFECTS: represents the note as a 6 character string
     @Override
     public String toString() {
-        if (type.equals("note")) {
+        if (isNote()) {
             return getLetters() + "-" + getOctave() + " " + getEffect();
-        } else if (type.equals("rest")) {
+        } else if (this == REST) {
             return "STOP .";
         } else {
             return ".... .";
@@ -2,137 +2,416 @@ package model;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import persistence.BinaryWritable;
 import persistence.Writable;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 
 // Represents an instrument channel inside of a track
 // Instrument channels have a set amount of bars and can have notes or rests placed in them
-public class InstrumentChannel implements Writable {
+// Each row stores the index of its event in the table of shared events, the blank event has index 0
+// A channel is an order list of bar patterns: each bar refers to an array holding the event indices of its rows,
+// and bars with the same events can share one pattern, so a song that repeats bars only stores each distinct bar once.
+// Blank bars share a single pattern, and a bar whose events are all cleared goes back to sharing it, so a mostly blank
+// channel only stores the bars that hold events, and iterating over its events skips each run of blank bars in
+// constant time using an index of the next bar that holds events. When a bar becomes blank or stops being blank, only
+// the entries of the run of blank bars before it change, so editing a bar does not rebuild the whole index.
+// A bar only writes to its pattern if it owns it, that is, if it copied the
+// pattern itself and has not shared it since; otherwise it copies the pattern first so that the bars sharing it
+// are not changed
+// The order list can be longer than the channel: the spare capacity past the last bar always refers to the blank
+// pattern, so bars can be added without touching it, and the order list grows geometrically when it runs out
+public class InstrumentChannel implements Writable, BinaryWritable {
     public static final int INITIAL_NUM_OF_BARS = 2;
     public static final int ROWS_PER_BAR = 16;
+    private static final short[] BLANK_BAR = new short[ROWS_PER_BAR];
 
-    List<Event> eventList;
+    private short[][] bars;
+    private boolean[] isOwned;
+    private int numBars;
+    private int[] nextEventBars;
 
     // EFFECTS: constructs an empty 2 bar instrument channel
     public InstrumentChannel() {
-        eventList = new ArrayList<>(ROWS_PER_BAR * 2);
-        for (int i = 1; i <= ROWS_PER_BAR * 2; i++) {
-            eventList.add(new Event());
-        }
+        numBars = INITIAL_NUM_OF_BARS;
+        bars = new short[numBars][];
+        Arrays.fill(bars, BLANK_BAR);
+        isOwned = new boolean[numBars];
+    }
+
+    // EFFECTS: constructs a channel whose bars are the given patterns, none of which it owns
+    private InstrumentChannel(short[][] bars) {
+        this.bars = bars;
+        numBars = bars.length;
+        isOwned = new boolean[numBars];
     }
 
     // REQUIRES: numBars > 0
     // MODIFIES: this
     // EFFECTS: adds numBars bars to the channel
     public void addBars(int numBars) {
-        for (int i = 1; i <= ROWS_PER_BAR * numBars; i++) {
-            eventList.add(new Event());
-        }
+        setNumberOfBars(numberOfBars() + numBars);
     }
 
     // REQUIRES: 0 < numBars < numberOfBars()
     // MODIFIES: this
     // EFFECTS: removes numBars bars from the channel
     public void removeBars(int numBars) {
-        int numRowsToClear = numBars * ROWS_PER_BAR;
-        for (int i = 1; i <= numRowsToClear; i++) {
-            eventList.remove(numberOfRows() - 1);
+        setNumberOfBars(numberOfBars() - numBars);
+    }
+
+    // REQUIRES: numBars > 0
+    // MODIFIES: this
+    // EFFECTS: adds blank bars to or removes bars from the end of the channel so that it has numBars bars
+    public void setNumberOfBars(int numBars) {
+        if (numBars > bars.length) {
+            int capacity = Math.max(numBars, bars.length * 2);
+            int oldCapacity = bars.length;
+            bars = Arrays.copyOf(bars, capacity);
+            Arrays.fill(bars, oldCapacity, capacity, BLANK_BAR);
+            isOwned = Arrays.copyOf(isOwned, capacity);
+        } else if (numBars < this.numBars) {
+            Arrays.fill(bars, numBars, this.numBars, BLANK_BAR);
+            Arrays.fill(isOwned, numBars, this.numBars, false);
         }
+        this.numBars = numBars;
+        nextEventBars = null;
     }
 
     // EFFECTS: returns the number of rows in the channel
     public int numberOfRows() {
-        return eventList.size();
+        return numBars * ROWS_PER_BAR;
     }
 
     // EFFECTS: returns the number of bars in the channel
     public int numberOfBars() {
-        return eventList.size() / ROWS_PER_BAR;
+        return numBars;
+    }
+
+    // EFFECTS: returns the number of distinct bar patterns the channel refers to
+    public int numberOfPatterns() {
+        Set<short[]> patterns = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int bar = 0; bar < numBars; bar++) {
+            patterns.add(bars[bar]);
+        }
+        return patterns.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes bars with the same events share one pattern
+    public void deduplicateBars() {
+        Map<ShortBuffer, short[]> patterns = new HashMap<>();
+        patterns.put(ShortBuffer.wrap(BLANK_BAR), BLANK_BAR);
+        for (int bar = 0; bar < numBars; bar++) {
+            short[] pattern = patterns.putIfAbsent(ShortBuffer.wrap(bars[bar]), bars[bar]);
+            if (pattern != null) {
+                bars[bar] = pattern;
+            }
+        }
+        Arrays.fill(isOwned, 0, numBars, false);
+        nextEventBars = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns a copy of the channel that shares its bar patterns with it, taking time proportional to the
+    //          number of bars; this channel gives up owning its patterns, so later edits to either channel copy a
+    //          pattern before changing it and never change the other channel
+    public InstrumentChannel snapshot() {
+        Arrays.fill(isOwned, 0, numBars, false);
+        return new InstrumentChannel(Arrays.copyOf(bars, numBars));
+    }
+
+    // REQUIRES: orderList.length == numberOfBars(), every pattern has ROWS_PER_BAR events,
+    //           every element of orderList is an index into patterns
+    // MODIFIES: this
+    // EFFECTS: sets each bar to the pattern at the given index of the order list, bars with the same index share
+    //          one pattern
+    public void setBars(List<Event[]> patterns, int[] orderList) {
+        short[][] indexPatterns = new short[patterns.size()][];
+        for (int i = 0; i < indexPatterns.length; i++) {
+            indexPatterns[i] = new short[ROWS_PER_BAR];
+            for (int row = 0; row < ROWS_PER_BAR; row++) {
+                indexPatterns[i][row] = patterns.get(i)[row].getIndex();
+            }
+        }
+        for (int bar = 0; bar < numBars; bar++) {
+            bars[bar] = indexPatterns[orderList[bar]];
+        }
+        deduplicateBars();
     }
 
     // REQUIRES: 1 <= row <= numberOfRows()
     // EFFECTS: returns the event at the given row
     public Event getEvent(int row) {
-        return eventList.get(row - 1);
+        return Event.fromIndex(getIndex(row));
+    }
+
+    // REQUIRES: 1 <= row <= numberOfRows()
+    // MODIFIES: this
+    // EFFECTS: places the given event at given row
+    public void setEvent(int row, Event event) {
+        setIndex(row, event.getIndex());
+    }
+
+    // REQUIRES: row >= 1
+    // MODIFIES: this
+    // EFFECTS: returns the first row at or after the given row that holds an event other than blank,
+    //          or numberOfRows() + 1 if there is none
+    public int nextEventRow(int row) {
+        int bar = (row - 1) / ROWS_PER_BAR;
+        if (bar >= numBars) {
+            return numberOfRows() + 1;
+        }
+        int eventRow = findEventInBar(bar, (row - 1) % ROWS_PER_BAR);
+        if (eventRow != 0) {
+            return eventRow;
+        }
+        int nextBar = getNextEventBars()[bar + 1];
+        return nextBar == numBars ? numberOfRows() + 1 : findEventInBar(nextBar, 0);
     }
 
     // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: places a note with given pitch at given row
     public void addNote(int row, int pitch) {
-        eventList.get(row - 1).makeNote(pitch);
+        setEvent(row, Event.note(pitch));
     }
 
     // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: places a rest at given row
     public void addRest(int row) {
-        eventList.get(row - 1).makeRest();
+        setEvent(row, Event.REST);
     }
 
     // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: if event at given row is a note, make it staccato and return true, otherwise return false
     public boolean makeStaccato(int row) {
-        return eventList.get(row - 1).makeStaccato();
+        return setStaccato(row, true);
     }
 
     // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: if event at given row is a note, make it not staccato and return true, otherwise return false
     public boolean makeNotStaccato(int row) {
-        return eventList.get(row - 1).makeNotStaccato();
+        return setStaccato(row, false);
     }
 
     // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: clears the event at the given row
     public void clear(int row) {
-        eventList.get(row - 1).clear();
+        setEvent(row, Event.BLANK);
     }
 
     // REQUIRES: 1 <= startRow/endRow <= numberOfRows(), endRow >= startRow
     // MODIFIES: this
     // EFFECTS: clears all events in the channel between startRow and endRow (inclusive)
     public void clear(int startRow, int endRow) {
-        for (int i = startRow; i <= endRow; i++) {
-            clear(i);
+        for (int bar = (endRow - 1) / ROWS_PER_BAR; bar >= (startRow - 1) / ROWS_PER_BAR; bar--) {
+            int from = Math.max(startRow - 1 - bar * ROWS_PER_BAR, 0);
+            int to = Math.min(endRow - bar * ROWS_PER_BAR, ROWS_PER_BAR);
+            if (bars[bar] == BLANK_BAR) {
+                continue;
+            }
+            if (from == 0 && to == ROWS_PER_BAR) {
+                bars[bar] = BLANK_BAR;
+                isOwned[bar] = false;
+                updateNextEventBars(bar);
+            } else {
+                Arrays.fill(getWritableBar(bar), from, to, Event.BLANK.getIndex());
+                releaseIfBlank(bar);
+            }
         }
     }
 
     // MODIFIES: this
     // EFFECTS: clears all events in the channel
     public void clear() {
-        for (Event event : eventList) {
-            event.clear();
-        }
+        Arrays.fill(bars, 0, numBars, BLANK_BAR);
+        Arrays.fill(isOwned, 0, numBars, false);
+        nextEventBars = null;
     }
 
     // MODIFIES: this
     // EFFECTS: transposes all notes in the channel by numSemitones semitones
     public void transpose(int numSemitones) {
-        for (Event event : eventList) {
-            event.transpose(numSemitones);
+        transpose(1, numberOfRows(), numSemitones);
+    }
+
+    // REQUIRES: 1 <= startRow <= endRow <= numberOfRows()
+    // MODIFIES: this
+    // EFFECTS: transposes all notes in the channel between startRow and endRow (inclusive) by numSemitones semitones
+    //          by looking up the transposed index of each row in a table, skipping runs of blank bars, transposing the
+    //          bars that own their pattern in place, and transposing each shared pattern once for all of its bars
+    public void transpose(int startRow, int endRow, int numSemitones) {
+        short[] table = Event.transposeTable(numSemitones);
+        Map<short[], short[]> transposed = null;
+        int lastBar = (endRow - 1) / ROWS_PER_BAR;
+        for (int bar = getNextEventBars()[(startRow - 1) / ROWS_PER_BAR]; bar <= lastBar;
+                bar = nextEventBars[bar + 1]) {
+            int from = Math.max(startRow - 1 - bar * ROWS_PER_BAR, 0);
+            int to = Math.min(endRow - bar * ROWS_PER_BAR, ROWS_PER_BAR);
+            if (isOwned[bar] || from != 0 || to != ROWS_PER_BAR) {
+                transpose(getWritableBar(bar), from, to, table);
+            } else {
+                if (transposed == null) {
+                    transposed = new IdentityHashMap<>();
+                }
+                bars[bar] = transposed.computeIfAbsent(bars[bar], pattern -> transpose(pattern.clone(), 0,
+                        ROWS_PER_BAR, table));
+            }
         }
     }
 
     // MODIFIES: this
     // EFFECTS: transposes all notes in the channel up by an octave
     public void transposeUpByOctave() {
-        for (Event event : eventList) {
-            event.transposeUpByOctave();
-        }
+        transpose(12);
     }
 
     // MODIFIES: this
     // EFFECTS: transposes all notes in the channel down by an octave
     public void transposeDownByOctave() {
-        for (Event event : eventList) {
-            event.transposeDownByOctave();
+        transpose(-12);
+    }
+
+    // REQUIRES: 1 <= startRow <= endRow <= numberOfRows()
+    // EFFECTS: returns a copy of the event indices of the rows from startRow to endRow (inclusive)
+    short[] copyRows(int startRow, int endRow) {
+        short[] indices = new short[endRow - startRow + 1];
+        for (int row = startRow; row <= endRow; row++) {
+            indices[row - startRow] = getIndex(row);
         }
+        return indices;
+    }
+
+    // REQUIRES: 1 <= row <= numberOfRows()
+    // EFFECTS: returns the index of the event at the given row
+    short getIndex(int row) {
+        return bars[(row - 1) / ROWS_PER_BAR][(row - 1) % ROWS_PER_BAR];
+    }
+
+    // REQUIRES: 1 <= row <= numberOfRows(), 0 <= index < Event.NUM_EVENTS
+    // MODIFIES: this
+    // EFFECTS: places the event with the given index at given row, copying the pattern of its bar first if it is
+    //          shared
+    void setIndex(int row, short index) {
+        if (getIndex(row) == index) {
+            return;
+        }
+        int bar = (row - 1) / ROWS_PER_BAR;
+        boolean wasBlank = bars[bar] == BLANK_BAR;
+        getWritableBar(bar)[(row - 1) % ROWS_PER_BAR] = index;
+        if (wasBlank) {
+            updateNextEventBars(bar);
+        } else if (index == Event.BLANK.getIndex()) {
+            releaseIfBlank(bar);
+        }
+    }
+
+    // REQUIRES: 0 <= bar < numberOfBars()
+    // MODIFIES: this
+    // EFFECTS: makes the bar share the blank pattern if all of its events are blank
+    private void releaseIfBlank(int bar) {
+        for (short index : bars[bar]) {
+            if (index != Event.BLANK.getIndex()) {
+                return;
+            }
+        }
+        bars[bar] = BLANK_BAR;
+        isOwned[bar] = false;
+        updateNextEventBars(bar);
+    }
+
+    // REQUIRES: 0 <= bar < numberOfBars()
+    // MODIFIES: this
+    // EFFECTS: updates the index of the next bar that holds events after the given bar became blank or stopped being
+    //          blank, changing only the entries of the bar and the run of blank bars before it
+    private void updateNextEventBars(int bar) {
+        if (nextEventBars == null) {
+            return;
+        }
+        if (bars[bar] == BLANK_BAR) {
+            int nextBar = nextEventBars[bar + 1];
+            for (int i = bar; i >= 0 && nextEventBars[i] == bar; i--) {
+                nextEventBars[i] = nextBar;
+            }
+        } else {
+            for (int i = bar; i >= 0 && nextEventBars[i] > bar; i--) {
+                nextEventBars[i] = bar;
+            }
+        }
+    }
+
+    // EFFECTS: returns the row in the given bar at or after the given offset into the bar that holds an event other
+    //          than blank, or 0 if there is none
+    private int findEventInBar(int bar, int offset) {
+        short[] pattern = bars[bar];
+        if (pattern != BLANK_BAR) {
+            for (int i = offset; i < ROWS_PER_BAR; i++) {
+                if (pattern[i] != Event.BLANK.getIndex()) {
+                    return bar * ROWS_PER_BAR + i + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns an array holding, for every bar and the bar one past the end, the first bar at or after it that
+    //          holds an event other than blank, or numberOfBars() if there is none, rebuilding it if it is stale
+    private int[] getNextEventBars() {
+        if (nextEventBars == null) {
+            nextEventBars = new int[numBars + 1];
+            nextEventBars[numBars] = numBars;
+            for (int bar = numBars - 1; bar >= 0; bar--) {
+                nextEventBars[bar] = bars[bar] != BLANK_BAR ? bar : nextEventBars[bar + 1];
+            }
+        }
+        return nextEventBars;
+    }
+
+    // REQUIRES: 0 <= bar < numberOfBars()
+    // MODIFIES: this
+    // EFFECTS: returns the pattern of the given bar after copying it if the bar does not own it
+    private short[] getWritableBar(int bar) {
+        if (!isOwned[bar]) {
+            bars[bar] = bars[bar].clone();
+            isOwned[bar] = true;
+        }
+        return bars[bar];
+    }
+
+    // MODIFIES: pattern
+    // EFFECTS: replaces each event index in pattern from index from (inclusive) to index to (exclusive) with its
+    //          entry in table and returns pattern
+    private static short[] transpose(short[] pattern, int from, int to, short[] table) {
+        for (int i = from; i < to; i++) {
+            pattern[i] = table[pattern[i]];
+        }
+        return pattern;
+    }
+
+    // REQUIRES: 1 <= row <= numberOfRows()
+    // MODIFIES: this
+    // EFFECTS: if event at given row is a note, make it staccato if isStaccato is true or not staccato otherwise,
+    //          and return true, otherwise return false
+    private boolean setStaccato(int row, boolean isStaccato) {
+        Event event = getEvent(row);
+        setEvent(row, event.withStaccato(isStaccato));
+        return event.isNote();
     }
 
     @Override
@@ -144,30 +423,103 @@ public class InstrumentChannel implements Writable {
             return false;
         }
         InstrumentChannel that = (InstrumentChannel) o;
-        return eventList.equals(that.eventList);
+        if (numBars != that.numBars) {
+            return false;
+        }
+        for (int bar = 0; bar < numBars; bar++) {
+            if (!Arrays.equals(bars[bar], that.bars[bar])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(eventList);
+        int hash = numberOfRows();
+        for (int bar = 0; bar < numBars; bar++) {
+            for (short index : bars[bar]) {
+                hash = 31 * hash + index;
+            }
+        }
+        return hash;
     }
 
-    // EFFECTS: returns this as JSON object
+    // EFFECTS: returns this as JSON object, with each distinct bar written once as a pattern and the bars as an
+    //          order list of indices into the patterns
     // (modelled after JsonSerializationDemo repository)
     // https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
     @Override
     public JSONObject toJson() {
+        List<short[]> patterns = new ArrayList<>();
+        int[] orderList = makeOrderList(patterns);
+        JSONArray jsonPatterns = new JSONArray();
+        for (short[] pattern : patterns) {
+            jsonPatterns.put(patternToJson(pattern));
+        }
         JSONObject json = new JSONObject();
-        json.put("eventList", eventListToJson());
+        json.put("patterns", jsonPatterns);
+        json.put("orderList", new JSONArray(orderList));
         return json;
     }
 
-    // EFFECTS: returns events in this channel as a JSON array
+    // EFFECTS: writes the number of distinct bar patterns, the event index of each row of each pattern as a byte,
+    //          and the order list as one int per bar to out
+    @Override
+    public void writeBinary(DataOutput out) throws IOException {
+        List<short[]> patterns = new ArrayList<>();
+        int[] orderList = makeOrderList(patterns);
+        out.writeInt(patterns.size());
+        byte[] bytes = new byte[ROWS_PER_BAR];
+        for (short[] pattern : patterns) {
+            for (int i = 0; i < ROWS_PER_BAR; i++) {
+                bytes[i] = (byte) pattern[i];
+            }
+            out.write(bytes);
+        }
+        for (int index : orderList) {
+            out.writeInt(index);
+        }
+    }
+
+    // MODIFIES: patterns
+    // EFFECTS: adds each distinct bar pattern of the channel to patterns once, in order of first appearance,
+    //          and returns the order list of indices into patterns for every bar
+    private int[] makeOrderList(List<short[]> patterns) {
+        Map<ShortBuffer, Integer> patternIndices = new HashMap<>();
+        int[] orderList = new int[numBars];
+        for (int bar = 0; bar < numBars; bar++) {
+            Integer index = patternIndices.putIfAbsent(ShortBuffer.wrap(bars[bar]), patterns.size());
+            if (index == null) {
+                index = patterns.size();
+                patterns.add(bars[bar]);
+            }
+            orderList[bar] = index;
+        }
+        return orderList;
+    }
+
+    // EFFECTS: returns the events of pattern as a JSON array if at least half of them are not blank, otherwise
+    //          returns a JSON object with only the events that are not blank and their offsets into the bar
     // (modelled after JsonSerializationDemo repository)
-    private JSONArray eventListToJson() {
+    private static Object patternToJson(short[] pattern) {
+        JSONArray offsets = new JSONArray();
+        JSONArray events = new JSONArray();
+        for (int i = 0; i < ROWS_PER_BAR; i++) {
+            if (pattern[i] != Event.BLANK.getIndex()) {
+                offsets.put(i);
+                events.put(Event.fromIndex(pattern[i]).toJson());
+            }
+        }
+        if (2 * events.length() < ROWS_PER_BAR) {
+            JSONObject json = new JSONObject();
+            json.put("offsets", offsets);
+            json.put("events", events);
+            return json;
+        }
         JSONArray jsonArray = new JSONArray();
-        for (Event event : eventList) {
-            jsonArray.put(event.toJson());
+        for (short index : pattern) {
+            jsonArray.put(Event.fromIndex(index).toJson());
         }
         return jsonArray;
     }
@@ -2,34 +2,67 @@ package model;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import persistence.BinaryWritable;
 import persistence.Writable;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 // Represents a music track
 // Tracks have a name, tempo,
 // and have four instrument channels: pulse 1, pulse 2, triangle, and noise
-public class Track implements Writable {
+// A track can have an edit history attached, in which case every edit to its events and bars is recorded so that it
+// can be undone and redone
+// A track can also be created without its events, which are then read from a loader the first time they are needed,
+// and a loaded track can be unloaded again to free the memory its events use
+// Every edit to the events or bars of a track increases its version, so a copy of the track that was saved at one
+// version is known to still be current as long as the version has not changed
+public class Track implements Writable, BinaryWritable {
     public static final int DEFAULT_BPM = 120;
     public static final int MIN_BPM = 10;
     public static final int MAX_BPM = 500;
+    private static final List<Channel> ALL_CHANNELS = Collections.unmodifiableList(Arrays.asList(Channel.values()));
 
     private String name;
     private int tempo;
-    private final InstrumentChannel pulse1;
-    private final InstrumentChannel pulse2;
-    private final InstrumentChannel triangle;
-    private final InstrumentChannel noise;
+    private InstrumentChannel[] channels;
+    private TrackLoader loader;
+    private int unloadedNumberOfBars;
+    private long version;
+    private EditHistory history;
 
     // REQUIRES: trackName has a length greater than 0
     // EFFECTS: creates a new empty 2 bar track with name trackName at 120 BPM
     public Track(String name) {
         this.name = name;
         tempo = DEFAULT_BPM;
-        pulse1 = new InstrumentChannel();
-        pulse2 = new InstrumentChannel();
-        triangle = new InstrumentChannel();
-        noise = new InstrumentChannel();
+        channels = new InstrumentChannel[Channel.NUM_CHANNELS];
+        for (int i = 0; i < Channel.NUM_CHANNELS; i++) {
+            channels[i] = new InstrumentChannel();
+        }
+    }
+
+    // REQUIRES: name has a length greater than 0, numberOfBars > 0
+    // EFFECTS: creates a track with the given name, tempo and number of bars whose events are read from loader
+    //          the first time they are needed
+    public Track(String name, int tempo, int numberOfBars, TrackLoader loader) {
+        this.name = name;
+        this.tempo = tempo;
+        this.loader = loader;
+        unloadedNumberOfBars = numberOfBars;
+    }
+
+    // EFFECTS: creates a track with the given name, tempo and channels
+    private Track(String name, int tempo, InstrumentChannel[] channels) {
+        this.name = name;
+        this.tempo = tempo;
+        this.channels = channels;
     }
 
     public String getName() {
@@ -40,6 +73,8 @@ public class Track implements Writable {
         return tempo;
     }
 
+    // MODIFIES: this
+    // EFFECTS: renames the track; a track that is in a tracker must be renamed with Tracker.renameTrack instead
     public void setName(String name) {
         this.name = name;
     }
@@ -48,159 +83,271 @@ public class Track implements Writable {
         this.tempo = tempo;
     }
 
+    // EFFECTS: returns the edit history attached to the track, or null if there is none
+    public EditHistory getHistory() {
+        return history;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: attaches history to the track so that later edits are recorded in it, or stops recording edits if
+    //          history is null
+    public void setHistory(EditHistory history) {
+        this.history = history;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the track has an edit history with an edit to undo, undoes it and returns true,
+    //          otherwise returns false
+    public boolean undo() {
+        return history != null && history.undo(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the track has an edit history with an undone edit to redo, redoes it and returns true,
+    //          otherwise returns false
+    public boolean redo() {
+        return history != null && history.redo(this);
+    }
+
     // REQUIRES: numBars > 0
     // MODIFIES: this
     // EFFECTS: adds numBars bars to the track
     public void addBars(int numBars) {
-        pulse1.addBars(numBars);
-        pulse2.addBars(numBars);
-        triangle.addBars(numBars);
-        noise.addBars(numBars);
+        setNumberOfBars(numberOfBars() + numBars);
     }
 
     // REQUIRES: 0 < numBars < numberOfBars()
     // MODIFIES: this
     // EFFECTS: removes numBars bars from the track
     public void removeBars(int numBars) {
-        pulse1.removeBars(numBars);
-        pulse2.removeBars(numBars);
-        triangle.removeBars(numBars);
-        noise.removeBars(numBars);
+        setNumberOfBars(numberOfBars() - numBars);
+    }
+
+    // REQUIRES: numBars > 0
+    // MODIFIES: this
+    // EFFECTS: adds blank bars to or removes bars from the end of the track so that it has numBars bars
+    public void setNumberOfBars(int numBars) {
+        if (history == null) {
+            restoreNumberOfBars(numBars);
+            return;
+        }
+        history.beginEdit(false);
+        if (numBars < numberOfBars()) {
+            clear(numBars * InstrumentChannel.ROWS_PER_BAR + 1, numberOfRows());
+        }
+        history.recordBars(numberOfBars(), numBars);
+        restoreNumberOfBars(numBars);
+        history.endEdit();
+    }
+
+    // REQUIRES: orderList.length == numberOfBars(), every pattern has InstrumentChannel.ROWS_PER_BAR events,
+    //           every element of orderList is an index into patterns
+    // MODIFIES: this
+    // EFFECTS: sets each bar of the given channel to the pattern at the given index of the order list
+    public void setBars(Channel channel, List<Event[]> patterns, int[] orderList) {
+        editRows(channel, 1, numberOfRows(), c -> c.setBars(patterns, orderList));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns a copy of the track without edit history whose channels share their bar patterns with the
+    //          channels of this track (see InstrumentChannel.snapshot), loading the track if it is not loaded;
+    //          the copy does not change when this track is edited, so it can be read on another thread
+    public Track snapshot() {
+        InstrumentChannel[] instrumentChannels = getChannels();
+        InstrumentChannel[] copies = new InstrumentChannel[Channel.NUM_CHANNELS];
+        for (int i = 0; i < Channel.NUM_CHANNELS; i++) {
+            copies[i] = instrumentChannels[i].snapshot();
+        }
+        return new Track(name, tempo, copies);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes bars with the same events in the same channel share one pattern
+    public void deduplicateBars() {
+        for (InstrumentChannel instrumentChannel : getChannels()) {
+            instrumentChannel.deduplicateBars();
+        }
+    }
+
+    // EFFECTS: returns the number of distinct bar patterns in the given channel
+    public int numberOfPatterns(Channel channel) {
+        return getChannel(channel).numberOfPatterns();
     }
 
     // EFFECTS: returns the number of rows in the track
     public int numberOfRows() {
-        return pulse1.numberOfRows();
+        return numberOfBars() * InstrumentChannel.ROWS_PER_BAR;
     }
 
-    // EFFECTS: returns the number of bars in the track
+    // EFFECTS: returns the number of bars in the track, without loading its events
     public int numberOfBars() {
-        return pulse1.numberOfBars();
+        return channels == null ? unloadedNumberOfBars : channels[0].numberOfBars();
+    }
+
+    // EFFECTS: returns the version of the events and bars of the track, which increases with every edit to them
+    //          but not when the track is loaded or unloaded
+    public long getVersion() {
+        return version;
+    }
+
+    // EFFECTS: returns true if the events of the track are in memory
+    public boolean isLoaded() {
+        return channels != null;
+    }
+
+    // REQUIRES: the events loader reads for the track are the same as the events of the track
+    // MODIFIES: this
+    // EFFECTS: drops the events of the track from memory, they are read from loader the next time they are needed
+    public void unload(TrackLoader loader) {
+        unloadedNumberOfBars = numberOfBars();
+        channels = null;
+        this.loader = loader;
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise", 1 <= row <= numberOfRows()
+    // REQUIRES: 1 <= row <= numberOfRows()
     // EFFECTS: returns the event at the given row in the given channel
-    public Event getEvent(String channel, int row) {
+    public Event getEvent(Channel channel, int row) {
         return getChannel(channel).getEvent(row);
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise", 1 <= row <= numberOfRows()
+    // REQUIRES: row >= 1
+    // EFFECTS: returns the first row at or after the given row in the given channel that holds an event other than
+    //          blank, or numberOfRows() + 1 if there is none
+    public int nextEventRow(Channel channel, int row) {
+        return getChannel(channel).nextEventRow(row);
+    }
+
+    // REQUIRES: 1 <= row <= numberOfRows()
+    // MODIFIES: this
+    // EFFECTS: places the given event into given channel at given row
+    public void setEvent(Channel channel, int row, Event event) {
+        editRows(channel, row, row, c -> c.setEvent(row, event));
+    }
+
+    // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: places a note with given pitch into given channel at given row
-    public void addNote(String channel, int row, int pitch) {
-        getChannel(channel).addNote(row, pitch);
+    public void addNote(Channel channel, int row, int pitch) {
+        editRows(channel, row, row, c -> c.addNote(row, pitch));
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise", 1 <= row <= numberOfRows()
+    // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: places a rest into given channel at given row
-    public void addRest(String channel, int row) {
-        getChannel(channel).addRest(row);
+    public void addRest(Channel channel, int row) {
+        editRows(channel, row, row, c -> c.addRest(row));
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise", 1 <= row <= numberOfRows()
+    // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: if event at given row in given channel is a note, make it staccato and return true,
     //          otherwise return false
-    public boolean makeStaccato(String channel, int row) {
-        return getChannel(channel).makeStaccato(row);
+    public boolean makeStaccato(Channel channel, int row) {
+        boolean isNote = getEvent(channel, row).isNote();
+        editRows(channel, row, row, c -> c.makeStaccato(row));
+        return isNote;
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise", 1 <= row <= numberOfRows()
+    // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: if event at given row in given channel is a note, make it not staccato and return true,
     //          otherwise return false
-    public boolean makeNotStaccato(String channel, int row) {
-        return getChannel(channel).makeNotStaccato(row);
+    public boolean makeNotStaccato(Channel channel, int row) {
+        boolean isNote = getEvent(channel, row).isNote();
+        editRows(channel, row, row, c -> c.makeNotStaccato(row));
+        return isNote;
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise", 1 <= row <= numberOfRows()
+    // REQUIRES: 1 <= row <= numberOfRows()
     // MODIFIES: this
     // EFFECTS: clears the event in given channel at given row
-    public void clear(String channel, int row) {
-        getChannel(channel).clear(row);
+    public void clear(Channel channel, int row) {
+        editRows(channel, row, row, c -> c.clear(row));
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise",
-    //           1 <= startRow/endRow <= numberOfRows(), endRow >= startRow
+    // REQUIRES: 1 <= startRow/endRow <= numberOfRows(), endRow >= startRow
     // MODIFIES: this
     // EFFECTS: clears all events in the given channel between startRow and endRow (inclusive)
-    public void clear(String channel, int startRow, int endRow) {
-        getChannel(channel).clear(startRow, endRow);
+    public void clear(Channel channel, int startRow, int endRow) {
+        editRows(channel, startRow, endRow, c -> c.clear(startRow, endRow));
     }
 
     // REQUIRES: 1 <= startRow/endRow <= numberOfRows(), endRow >= startRow
     // MODIFIES: this
     // EFFECTS: clears all events between startRow and endRow (inclusive)
     public void clear(int startRow, int endRow) {
-        pulse1.clear(startRow, endRow);
-        pulse2.clear(startRow, endRow);
-        triangle.clear(startRow, endRow);
-        noise.clear(startRow, endRow);
+        editChannels(ALL_CHANNELS, startRow, endRow, c -> c.clear(startRow, endRow));
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise"
     // MODIFIES: this
     // EFFECTS: clears all events in the given channel
-    public void clear(String channel) {
-        getChannel(channel).clear();
+    public void clear(Channel channel) {
+        editRows(channel, 1, numberOfRows(), InstrumentChannel::clear);
     }
 
     // MODIFIES: this
     // EFFECTS: clears all events in the track
     public void clear() {
-        pulse1.clear();
-        pulse2.clear();
-        triangle.clear();
-        noise.clear();
+        editChannels(ALL_CHANNELS, 1, numberOfRows(), InstrumentChannel::clear);
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise"
     // MODIFIES: this
     // EFFECTS: transposes all notes in the given channel by numSemitones semitones
-    public void transpose(String channel, int numSemitones) {
-        getChannel(channel).transpose(numSemitones);
+    public void transpose(Channel channel, int numSemitones) {
+        editRows(channel, 1, numberOfRows(), c -> c.transpose(numSemitones));
     }
 
     // MODIFIES: this
     // EFFECTS: transposes all notes in the track by numSemitones semitones
     public void transpose(int numSemitones) {
-        pulse1.transpose(numSemitones);
-        pulse2.transpose(numSemitones);
-        triangle.transpose(numSemitones);
-        noise.transpose(numSemitones);
+        editChannels(ALL_CHANNELS, 1, numberOfRows(), c -> c.transpose(numSemitones));
+    }
+
+    // REQUIRES: 1 <= startRow/endRow <= numberOfRows(), endRow >= startRow
+    // MODIFIES: this
+    // EFFECTS: transposes all notes in the given channel between startRow and endRow (inclusive)
+    //          by numSemitones semitones
+    public void transpose(Channel channel, int startRow, int endRow, int numSemitones) {
+        editRows(channel, startRow, endRow, c -> c.transpose(startRow, endRow, numSemitones));
+    }
+
+    // REQUIRES: 1 <= startRow/endRow <= numberOfRows(), endRow >= startRow
+    // MODIFIES: this
+    // EFFECTS: transposes all notes in the given channels between startRow and endRow (inclusive)
+    //          by numSemitones semitones
+    public void transpose(Collection<Channel> channels, int startRow, int endRow, int numSemitones) {
+        editChannels(channels, startRow, endRow, c -> c.transpose(startRow, endRow, numSemitones));
+    }
+
+    // REQUIRES: 1 <= startRow/endRow <= numberOfRows(), endRow >= startRow
+    // MODIFIES: this
+    // EFFECTS: transposes all notes between startRow and endRow (inclusive) by numSemitones semitones
+    public void transpose(int startRow, int endRow, int numSemitones) {
+        transpose(ALL_CHANNELS, startRow, endRow, numSemitones);
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise"
     // MODIFIES: this
     // EFFECTS: transposes all notes in the given channel up by an octave
-    public void transposeUpByOctave(String channel) {
-        getChannel(channel).transposeUpByOctave();
+    public void transposeUpByOctave(Channel channel) {
+        editRows(channel, 1, numberOfRows(), InstrumentChannel::transposeUpByOctave);
     }
 
     // MODIFIES: this
     // EFFECTS: transposes all notes in the track up by an octave
     public void transposeUpByOctave() {
-        pulse1.transposeUpByOctave();
-        pulse2.transposeUpByOctave();
-        triangle.transposeUpByOctave();
-        noise.transposeUpByOctave();
+        editChannels(ALL_CHANNELS, 1, numberOfRows(), InstrumentChannel::transposeUpByOctave);
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise"
     // MODIFIES: this
     // EFFECTS: transposes all notes in the given channel down by an octave
-    public void transposeDownByOctave(String channel) {
-        getChannel(channel).transposeDownByOctave();
+    public void transposeDownByOctave(Channel channel) {
+        editRows(channel, 1, numberOfRows(), InstrumentChannel::transposeDownByOctave);
     }
 
     // MODIFIES: this
     // EFFECTS: transposes all notes in the track down by an octave
     public void transposeDownByOctave() {
-        pulse1.transposeDownByOctave();
-        pulse2.transposeDownByOctave();
-        triangle.transposeDownByOctave();
-        noise.transposeDownByOctave();
+        editChannels(ALL_CHANNELS, 1, numberOfRows(), InstrumentChannel::transposeDownByOctave);
     }
 
     // EFFECTS: see super
@@ -215,16 +362,13 @@ public class Track implements Writable {
         Track track = (Track) o;
         return tempo == track.tempo
                 && name.equals(track.name)
-                && pulse1.equals(track.pulse1)
-                && pulse2.equals(track.pulse2)
-                && triangle.equals(track.triangle)
-                && noise.equals(track.noise);
+                && Arrays.equals(getChannels(), track.getChannels());
     }
 
     // EFFECTS: see super
     @Override
     public int hashCode() {
-        return Objects.hash(name, tempo, pulse1, pulse2, triangle, noise);
+        return Objects.hash(name, tempo, Arrays.hashCode(getChannels()));
     }
 
     // EFFECTS: returns this as JSON object
@@ -236,25 +380,111 @@ public class Track implements Writable {
         json.put("name", name);
         json.put("tempo", tempo);
         json.put("numberOfBars", numberOfBars());
-        json.put("pulse1", pulse1.toJson());
-        json.put("pulse2", pulse2.toJson());
-        json.put("triangle", triangle.toJson());
-        json.put("noise", noise.toJson());
+        for (Channel channel : Channel.values()) {
+            json.put(channel.getKey(), getChannel(channel).toJson());
+        }
         return json;
     }
 
-    // REQUIRES: channel is "pulse1", "pulse2", "triangle", or "noise"
-    // EFFECTS: returns the channel corresponding to the given string
-    private InstrumentChannel getChannel(String channel) {
-        switch (channel) {
-            case "pulse1":
-                return pulse1;
-            case "pulse2":
-                return pulse2;
-            case "triangle":
-                return triangle;
-            default:
-                return noise;
+    // EFFECTS: writes the events of each channel to out in the binary tracker format, in the order of
+    //          Channel.values(); the name, tempo and number of bars are kept in the tracker file's directory
+    @Override
+    public void writeBinary(DataOutput out) throws IOException {
+        for (InstrumentChannel channel : getChannels()) {
+            channel.writeBinary(out);
+        }
+    }
+
+    // REQUIRES: 0 <= channel < Channel.NUM_CHANNELS, each of rows is between 1 and numberOfRows()
+    // MODIFIES: this
+    // EFFECTS: places the events with the given indices at the given rows of the channel with the given ordinal,
+    //          without recording an edit
+    void restoreRows(int channel, int[] rows, short[] indices) {
+        version++;
+        for (int i = 0; i < rows.length; i++) {
+            getChannels()[channel].setIndex(rows[i], indices[i]);
+        }
+    }
+
+    // REQUIRES: numBars > 0
+    // MODIFIES: this
+    // EFFECTS: sets the number of bars of every channel to numBars without recording an edit
+    void restoreNumberOfBars(int numBars) {
+        version++;
+        for (InstrumentChannel instrumentChannel : getChannels()) {
+            instrumentChannel.setNumberOfBars(numBars);
+        }
+    }
+
+    // EFFECTS: returns the instrument channel for the given channel
+    private InstrumentChannel getChannel(Channel channel) {
+        return getChannels()[channel.ordinal()];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the instrument channels of the track, reading its events from the loader first if the track
+    //          has not been loaded
+    private InstrumentChannel[] getChannels() {
+        if (channels == null) {
+            load();
+        }
+        return channels;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates blank channels with the unloaded number of bars and has the loader set their bars,
+    //          without recording an edit or changing the version; leaves the track unloaded if the loader fails
+    private void load() {
+        channels = new InstrumentChannel[Channel.NUM_CHANNELS];
+        for (int i = 0; i < Channel.NUM_CHANNELS; i++) {
+            channels[i] = new InstrumentChannel();
+            channels[i].setNumberOfBars(unloadedNumberOfBars);
+        }
+        EditHistory attachedHistory = history;
+        long loadedVersion = version;
+        history = null;
+        try {
+            loader.load(this);
+            loader = null;
+        } catch (RuntimeException e) {
+            channels = null;
+            throw e;
+        } finally {
+            history = attachedHistory;
+            version = loadedVersion;
+        }
+    }
+
+    // REQUIRES: 1 <= startRow <= endRow <= numberOfRows(), edit only changes the rows from startRow to endRow
+    // MODIFIES: this
+    // EFFECTS: applies edit to the given channel, recording the rows it changed in the edit history if there is one
+    private void editRows(Channel channel, int startRow, int endRow, Consumer<InstrumentChannel> edit) {
+        InstrumentChannel instrumentChannel = getChannel(channel);
+        version++;
+        if (history == null) {
+            edit.accept(instrumentChannel);
+            return;
+        }
+        short[] before = instrumentChannel.copyRows(startRow, endRow);
+        history.beginEdit(startRow == endRow);
+        edit.accept(instrumentChannel);
+        history.recordRows(channel.ordinal(), startRow, before, instrumentChannel.copyRows(startRow, endRow));
+        history.endEdit();
+    }
+
+    // REQUIRES: 1 <= startRow <= endRow <= numberOfRows(), edit only changes the rows from startRow to endRow
+    // MODIFIES: this
+    // EFFECTS: applies edit to each of the given channels as a single edit in the edit history if there is one
+    private void editChannels(Collection<Channel> channels, int startRow, int endRow,
+                              Consumer<InstrumentChannel> edit) {
+        if (history != null) {
+            history.beginEdit(false);
+        }
+        for (Channel channel : channels) {
+            editRows(channel, startRow, endRow, edit);
+        }
+        if (history != null) {
+            history.endEdit();
         }
     }
 }
@@ -0,0 +1,9 @@
+package model;
+
+// Represents a source that the events of a track which has not been loaded yet are read from
+public interface TrackLoader {
+    // REQUIRES: track has the number of bars it was stored with and only blank events
+    // MODIFIES: track
+    // EFFECTS: sets the bars of each channel of track to the stored ones
+    void load(Track track);
+}
@@ -4,45 +4,80 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import persistence.Writable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 // Represents all tracks stored in the tracker
+// The tracker keeps an index from track names to the tracks with that name, and for each track instance in the
+// tracker, the name it is indexed under, how many times it is in the tracker and the position of its first
+// occurrence, so that looking up a track by name, checking whether a track is in the tracker and finding the track to
+// remove by name do not scan the track list. The index is kept up to date when tracks are added, removed or renamed
+// through the tracker or its track list, and positions after a change to the track list are renumbered the next time
+// one of them is needed
 public class Tracker implements Writable {
     private final List<Track> trackList;
+    private final List<Track> trackListView;
+    private final Map<String, List<Track>> nameIndex;
+    private final Map<Track, Member> members;
+    private int validPositions;
 
     // EFFECTS: Constructs an empty tracker
     public Tracker() {
         trackList = new ArrayList<>();
+        trackListView = new IndexedTrackList();
+        nameIndex = new HashMap<>();
+        members = new IdentityHashMap<>();
     }
 
-    // EFFECTS: returns the list of tracks in the tracker
+    // EFFECTS: returns the list of tracks in the tracker, changes to the list change the tracker
     public List<Track> getTrackList() {
-        return trackList;
+        return trackListView;
     }
 
-    // EFFECTS: returns the track in the tracker with the given name, if no such track exists return null
+    // EFFECTS: returns the track in the tracker with the given name, the one that has had the name in the tracker the
+    //          longest if there are several, if no such track exists return null
     public Track getTrack(String name) {
-        for (Track track : trackList) {
-            if (name.equals(track.getName())) {
-                return track;
-            }
-        }
-        return null;
+        List<Track> tracks = nameIndex.get(name);
+        return tracks == null ? null : tracks.get(0);
+    }
+
+    // EFFECTS: returns true if the tracker has a track with the given name
+    public boolean hasTrackNamed(String name) {
+        return nameIndex.containsKey(name);
     }
 
     // MODIFIES: this
     // EFFECTS: adds an empty track with given name to the tracker
     public void addTrack(String name) {
-        Track track = new Track(name);
-        trackList.add(track);
+        add(new Track(name));
+    }
+
+    // REQUIRES: track is in the tracker
+    // MODIFIES: this, track
+    // EFFECTS: renames track and moves it to its new name in the name index
+    public void renameTrack(Track track, String name) {
+        Member member = members.get(track);
+        for (int i = 0; i < member.count; i++) {
+            removeFromNameIndex(track, member.name);
+        }
+        track.setName(name);
+        member.name = name;
+        for (int i = 0; i < member.count; i++) {
+            addToNameIndex(track);
+        }
     }
 
     // MODIFIES: this
     // EFFECTS: removes the track with given name from the tracker, if such track does not exist do nothing
     public void removeTrack(String name) {
         Track track = getTrack(name);
-        trackList.remove(track);
+        if (track != null) {
+            trackListView.remove(positionOf(track));
+        }
     }
 
     // EFFECTS: returns the number of tracks in the tracker
@@ -50,22 +85,22 @@ public class Tracker implements Writable {
         return trackList.size();
     }
 
-    // EFFECTS: returns true if the tracker contains the given track, false otherwise
+    // EFFECTS: returns true if the tracker contains the given track instance, false otherwise
     public boolean contains(Track track) {
-        return trackList.contains(track);
+        return members.containsKey(track);
     }
 
     // MODIFIES: this
     // EFFECTS: adds track to tracker
     public void add(Track track) {
-        trackList.add(track);
+        trackListView.add(track);
     }
 
     // REQUIRES: 0 < pos < numberOfTracks()
     // MODIFIES: this
     // EFFECTS: removes the track at the given position from the tracker
     public void remove(int pos) {
-        trackList.remove(pos - 1);
+        trackListView.remove(pos - 1);
     }
 
     // EFFECTS: returns the track in the tracker at the given position, if no such track exists return null
@@ -77,6 +112,83 @@ public class Tracker implements Writable {
         }
     }
 
+    // REQUIRES: track is in the tracker
+    // MODIFIES: this
+    // EFFECTS: returns the index in the track list of the first occurrence of track, renumbering the positions that
+    //          changed since they were last needed if its position is not known
+    private int positionOf(Track track) {
+        Member member = members.get(track);
+        if (!hasValidPosition(track, member)) {
+            for (int i = validPositions; i < trackList.size(); i++) {
+                Track other = trackList.get(i);
+                Member otherMember = members.get(other);
+                if (otherMember.position >= i || trackList.get(otherMember.position) != other) {
+                    otherMember.position = i;
+                }
+            }
+            validPositions = trackList.size();
+        }
+        return member.position;
+    }
+
+    // EFFECTS: returns true if the position of member is before the first position that may have changed and track
+    //          is still at that position
+    private boolean hasValidPosition(Track track, Member member) {
+        return member.position < validPositions && trackList.get(member.position) == track;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that the positions of the tracks at or after index may have changed
+    private void positionsChanged(int index) {
+        validPositions = Math.min(validPositions, index);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an occurrence of track to the name index and the members at the given index of the track list
+    private void indexTrack(Track track, int index) {
+        addToNameIndex(track);
+        Member member = members.get(track);
+        if (member == null) {
+            members.put(track, new Member(track.getName(), index));
+        } else {
+            member.count++;
+        }
+        positionsChanged(index);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes an occurrence of track at the given index of the track list from the name index and the members
+    private void unindexTrack(Track track, int index) {
+        Member member = members.get(track);
+        removeFromNameIndex(track, member.name);
+        member.count--;
+        if (member.count == 0) {
+            members.remove(track);
+        }
+        positionsChanged(index);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an occurrence of track to the tracks with its name in the name index
+    private void addToNameIndex(Track track) {
+        nameIndex.computeIfAbsent(track.getName(), name -> new ArrayList<>(1)).add(track);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes one occurrence of track from the tracks with the given name in the name index
+    private void removeFromNameIndex(Track track, String name) {
+        List<Track> tracks = nameIndex.get(name);
+        for (int i = 0; i < tracks.size(); i++) {
+            if (tracks.get(i) == track) {
+                tracks.remove(i);
+                break;
+            }
+        }
+        if (tracks.isEmpty()) {
+            nameIndex.remove(name);
+        }
+    }
+
     // EFFECTS: returns this as JSON object
     // (modelled after JsonSerializationDemo repository)
     @Override
@@ -96,4 +208,65 @@ public class Tracker implements Writable {
         }
         return jsonArray;
     }
+
+    // Represents the list of tracks in the tracker, keeping the index up to date as tracks are added and removed
+    private class IndexedTrackList extends AbstractList<Track> {
+
+        // EFFECTS: see super
+        @Override
+        public Track get(int index) {
+            return trackList.get(index);
+        }
+
+        // EFFECTS: see super
+        @Override
+        public int size() {
+            return trackList.size();
+        }
+
+        // MODIFIES: Tracker.this
+        // EFFECTS: see super
+        @Override
+        public void add(int index, Track track) {
+            trackList.add(index, track);
+            indexTrack(track, index);
+            modCount++;
+        }
+
+        // MODIFIES: Tracker.this
+        // EFFECTS: see super
+        @Override
+        public Track set(int index, Track track) {
+            Track oldTrack = trackList.set(index, track);
+            unindexTrack(oldTrack, index);
+            indexTrack(track, index);
+            return oldTrack;
+        }
+
+        // MODIFIES: Tracker.this
+        // EFFECTS: see super
+        @Override
+        public Track remove(int index) {
+            Track track = trackList.remove(index);
+            unindexTrack(track, index);
+            modCount++;
+            return track;
+        }
+    }
+
+    // Represents a track instance in the tracker: the name it is indexed under, the number of times it is in the
+    // tracker, and the index in the track list of its first occurrence, which is only known to be right if it is
+    // before the first position that may have changed
+    private static class Member {
+        private String name;
+        private int count;
+        private int position;
+
+        // EFFECTS: constructs a member that is in the tracker once at the given position under the given name
+        Member(String name, int position) {
+            this.name = name;
+            this.position = position;
+            count = 1;
+        }
+    }
 }
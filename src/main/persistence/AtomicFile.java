@@ -0,0 +1,62 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Provides the steps for replacing a file without ever leaving it half written: the new contents are written to a
+// temporary file next to it and forced to disk, then the temporary file is renamed over the file in one step and the
+// directory holding them is forced to disk, so after a crash the file holds either all of its old contents or all
+// of its new contents
+final class AtomicFile {
+
+    // EFFECTS: prevents construction, this class only has static methods
+    private AtomicFile() {
+    }
+
+    // EFFECTS: returns the path of the temporary file that is written before it replaces file
+    static Path temporaryFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    // REQUIRES: temporaryFile has been closed after its contents were forced to disk
+    // MODIFIES: file
+    // EFFECTS: renames temporaryFile over file atomically if the file system allows it, otherwise replaces file
+    //          with temporaryFile, then forces the directory holding file to disk so the rename itself survives a
+    //          crash where the platform allows it; throws IOException if the file cannot be replaced
+    static void replace(Path temporaryFile, Path file) throws IOException {
+        try {
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    // EFFECTS: forces the entries of directory to disk; does nothing on platforms such as Windows where a directory
+    //          cannot be opened, the file has already been replaced by then and will reach the disk with the next
+    //          flush of the file system
+    private static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // the platform does not allow directories to be opened or forced
+        }
+    }
+
+    // EFFECTS: deletes temporaryFile if it exists, ignoring errors, after a write to it has failed
+    static void discard(Path temporaryFile) {
+        try {
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
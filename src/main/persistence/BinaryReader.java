@@ -0,0 +1,170 @@
+package persistence;
+
+import model.Channel;
+import model.Event;
+import model.InstrumentChannel;
+import model.Track;
+import model.Tracker;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a reader that reads tracker from a file in the binary tracker format, see BinaryWriter
+// The file is mapped into memory rather than read through a stream, so only the pages that hold the directory and
+// the events are touched, and the events of each track are decoded straight from the mapped bytes
+public class BinaryReader {
+    private final String source;
+
+    // EFFECTS: constructs reader to read from source file
+    public BinaryReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads tracker from file and returns it;
+    //          throws IOException if an error occurs reading data from file or the file is not a valid tracker file
+    public Tracker read() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Tracker file is too large: " + source);
+            }
+            return parseTracker(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw corruptFile();
+        }
+    }
+
+    // EFFECTS: parses tracker from the header, directory and track blocks in buffer and returns it
+    private Tracker parseTracker(ByteBuffer buffer) throws IOException {
+        buffer.position((int) checkOffset(parseHeader(buffer), 0, buffer.limit()));
+        Tracker tracker = new Tracker();
+        for (DirectoryEntry entry : parseDirectory(buffer, buffer.limit())) {
+            Track track = new Track(entry.name);
+            track.setTempo(entry.tempo);
+            track.setNumberOfBars(entry.numberOfBars);
+            ByteBuffer data = buffer.duplicate();
+            data.limit((int) (entry.offset + entry.length)).position((int) entry.offset);
+            addBars(track, data);
+            tracker.add(track);
+        }
+        return tracker;
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: parses the header at the start of a tracker file from buffer and returns the offset of the directory;
+    //          throws IOException if buffer does not start with the header of a supported version
+    long parseHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != BinaryWriter.MAGIC) {
+            throw new IOException("Not a tracker file: " + source);
+        }
+        int version = buffer.getInt();
+        if (version != BinaryWriter.VERSION) {
+            throw new IOException("Unsupported tracker file version " + version + ": " + source);
+        }
+        return buffer.getLong();
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: parses the track directory of a file of the given size from buffer and returns its entries;
+    //          throws IOException if an entry refers to bytes outside of the file
+    List<DirectoryEntry> parseDirectory(ByteBuffer buffer, long fileSize) throws IOException {
+        int numTracks = buffer.getInt();
+        if (numTracks < 0 || numTracks > buffer.remaining()) {
+            throw corruptFile();
+        }
+        List<DirectoryEntry> directory = new ArrayList<>(numTracks);
+        for (int i = 0; i < numTracks; i++) {
+            DirectoryEntry entry = new DirectoryEntry();
+            entry.name = parseName(buffer);
+            entry.tempo = buffer.getInt();
+            entry.numberOfBars = buffer.getInt();
+            entry.offset = checkOffset(buffer.getLong(), 0, fileSize);
+            entry.length = buffer.getInt();
+            checkOffset(entry.offset + entry.length, entry.offset, fileSize);
+            if (entry.numberOfBars <= 0 || entry.numberOfBars > entry.length / Integer.BYTES) {
+                throw corruptFile();
+            }
+            directory.add(entry);
+        }
+        return directory;
+    }
+
+    // REQUIRES: track has the number of bars that it was stored with
+    // MODIFIES: track, data
+    // EFFECTS: parses the bar patterns and the order list of each channel from a block of track data and sets the
+    //          bars of track; throws IOException if the block is not valid
+    void addBars(Track track, ByteBuffer data) throws IOException {
+        try {
+            for (Channel channel : Channel.values()) {
+                addInstrumentChannel(track, data, channel);
+            }
+        } catch (BufferUnderflowException e) {
+            throw corruptFile();
+        }
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: parses a track name stored as its length followed by its UTF-8 bytes from buffer and returns it
+    private String parseName(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw corruptFile();
+        }
+        byte[] name = new byte[length];
+        buffer.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    // MODIFIES: track, data
+    // EFFECTS: parses the bar patterns and the order list of channel from data and sets the bars of track
+    private void addInstrumentChannel(Track track, ByteBuffer data, Channel channel) throws IOException {
+        int numPatterns = data.getInt();
+        if (numPatterns < 0 || numPatterns > data.remaining() / InstrumentChannel.ROWS_PER_BAR) {
+            throw corruptFile();
+        }
+        List<Event[]> patterns = new ArrayList<>(numPatterns);
+        for (int i = 0; i < numPatterns; i++) {
+            Event[] pattern = new Event[InstrumentChannel.ROWS_PER_BAR];
+            for (int row = 0; row < pattern.length; row++) {
+                pattern[row] = parseEvent(data.get());
+            }
+            patterns.add(pattern);
+        }
+        int[] orderList = new int[track.numberOfBars()];
+        for (int bar = 0; bar < orderList.length; bar++) {
+            orderList[bar] = data.getInt();
+            if (orderList[bar] < 0 || orderList[bar] >= numPatterns) {
+                throw corruptFile();
+            }
+        }
+        track.setBars(channel, patterns, orderList);
+    }
+
+    // EFFECTS: returns the event with the given index; throws IOException if there is no such event
+    private Event parseEvent(int index) throws IOException {
+        if (index < 0 || index >= Event.NUM_EVENTS) {
+            throw corruptFile();
+        }
+        return Event.fromIndex(index);
+    }
+
+    // EFFECTS: returns offset; throws IOException unless it is at least the header size, at least min,
+    //          and at most max
+    private long checkOffset(long offset, long min, long max) throws IOException {
+        if (offset < Math.max(min, BinaryWriter.HEADER_SIZE) || offset > max) {
+            throw corruptFile();
+        }
+        return offset;
+    }
+
+    // EFFECTS: returns an exception reporting that the source file is not a valid tracker file
+    IOException corruptFile() {
+        return new IOException("Corrupt tracker file: " + source);
+    }
+}
@@ -0,0 +1,11 @@
+package persistence;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+// represents a class that can be written in the binary tracker format
+public interface BinaryWritable {
+    // EFFECTS: writes this to out in the binary tracker format;
+    //          throws IOException if an error occurs writing to out
+    void writeBinary(DataOutput out) throws IOException;
+}
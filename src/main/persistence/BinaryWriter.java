@@ -0,0 +1,144 @@
+package persistence;
+
+import model.Track;
+import model.Tracker;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a writer that writes tracker to file in the binary tracker format
+// A tracker file starts with a header holding a magic number, the version of the format and the offset of the track
+// directory. The events of each track follow as one block per track, written by Track.writeBinary, and the directory
+// at the end of the file lists the name, tempo, number of bars, and the offset and length of the block of each track
+// The file is written next to the destination, forced to disk, and renamed over it when the writer is closed (see
+// AtomicFile), so a crash never leaves a half written file, and a library that is still reading tracks from the old
+// file (see TrackLibrary) keeps reading the old file rather than a truncated one
+public class BinaryWriter {
+    static final int MAGIC = 0x54524B52;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final String destination;
+    private Path temporaryFile;
+    private FileChannel channel;
+    private DataOutputStream out;
+
+    // EFFECTS: constructs writer to write to destination file
+    public BinaryWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer on a temporary file next to the destination file;
+    //          throws IOException if the file cannot be opened for writing
+    public void open() throws IOException {
+        temporaryFile = AtomicFile.temporaryFile(Paths.get(destination));
+        channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the binary representation of tracker to file;
+    //          throws IOException if an error occurs writing to file
+    public void write(Tracker tracker) throws IOException {
+        List<DirectoryEntry> directory = new ArrayList<>();
+        writeHeader(out, 0);
+        for (Track track : tracker.getTrackList()) {
+            DirectoryEntry entry = makeEntry(track);
+            entry.offset = position();
+            track.writeBinary(out);
+            entry.length = (int) (position() - entry.offset);
+            directory.add(entry);
+        }
+        long directoryOffset = position();
+        writeDirectory(out, directory);
+        out.flush();
+        writeDirectoryOffset(channel, directoryOffset);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forces the file written to disk, closes writer and replaces the destination file with it;
+    //          throws IOException if the file cannot be written, closed or moved
+    public void close() throws IOException {
+        try {
+            out.flush();
+            channel.force(true);
+            out.close();
+        } catch (IOException e) {
+            out.close();
+            AtomicFile.discard(temporaryFile);
+            throw e;
+        }
+        AtomicFile.replace(temporaryFile, Paths.get(destination));
+    }
+
+    // EFFECTS: returns a directory entry with the name, tempo and number of bars of track
+    static DirectoryEntry makeEntry(Track track) {
+        DirectoryEntry entry = new DirectoryEntry();
+        entry.name = track.getName();
+        entry.tempo = track.getTempo();
+        entry.numberOfBars = track.numberOfBars();
+        return entry;
+    }
+
+    // EFFECTS: returns the block of events of track in the binary tracker format
+    static byte[] encodeTrack(Track track) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        track.writeBinary(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes a header with the given directory offset to out
+    static void writeHeader(DataOutput out, long directoryOffset) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(directoryOffset);
+    }
+
+    // MODIFIES: channel
+    // EFFECTS: replaces the directory offset in the header of the file open in channel with directoryOffset
+    static void writeDirectoryOffset(FileChannel channel, long directoryOffset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, directoryOffset);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, HEADER_SIZE - Long.BYTES + buffer.position());
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes the number of entries, then the name, tempo, number of bars, and the offset and length of the
+    //          block of each entry to out
+    static void writeDirectory(DataOutput out, List<DirectoryEntry> directory) throws IOException {
+        out.writeInt(directory.size());
+        for (DirectoryEntry entry : directory) {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+            out.writeInt(entry.tempo);
+            out.writeInt(entry.numberOfBars);
+            out.writeLong(entry.offset);
+            out.writeInt(entry.length);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes out everything written so far and returns the position in the file that is written next
+    private long position() throws IOException {
+        out.flush();
+        return channel.position();
+    }
+}
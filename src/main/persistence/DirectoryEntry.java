@@ -0,0 +1,11 @@
+package persistence;
+
+// Represents the entry of a track in the directory of a binary tracker file: its name, tempo and number of bars,
+// and the offset and length of the block that holds its events
+class DirectoryEntry {
+    String name;
+    int tempo;
+    int numberOfBars;
+    long offset;
+    int length;
+}
@@ -1,19 +1,31 @@
 package persistence;
 
+import model.Channel;
+import model.Event;
 import model.InstrumentChannel;
 import model.Track;
 import model.Tracker;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.json.JSONException;
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 // Represents a reader that reads tracker from JSON data stored in file
+// The file is read one token at a time and each track is built as soon as its JSON object ends, so the file text is
+// never held in memory as a whole. Channels are read either as bar patterns with an order list, or as the flat event
+// lists of older files, whose repeated bars are made to share patterns after reading
 public class JsonReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
     private final String source;
 
     // EFFECTS: constructs reader to read from source file
@@ -24,98 +36,279 @@ public class JsonReader {
     // EFFECTS: reads tracker from file and returns it;
     // throws IOException if an error occurs reading data from file
     public Tracker read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseTracker(jsonObject);
-    }
-
-    // EFFECTS: reads source file as string and returns it
-    private String readFile(String source) throws IOException {
-        StringBuilder contentBuilder = new StringBuilder();
-
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(contentBuilder::append);
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            JsonTokenizer tokenizer = new JsonTokenizer(
+                    Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE));
+            return parseTracker(tokenizer);
         }
-
-        return contentBuilder.toString();
     }
 
-    // EFFECTS: parses tracker from JSON object and returns it
-    private Tracker parseTracker(JSONObject jsonObject) {
+    // EFFECTS: parses tracker from JSON and returns it
+    private Tracker parseTracker(JsonTokenizer tokenizer) throws IOException {
         Tracker tracker = new Tracker();
-        addTrackList(tracker, jsonObject);
+        tokenizer.beginObject();
+        for (String key = tokenizer.nextKey(); key != null; key = tokenizer.nextKey()) {
+            if (key.equals("trackList")) {
+                addTrackList(tracker, tokenizer);
+            } else {
+                tokenizer.skipValue();
+            }
+        }
         return tracker;
     }
 
     // MODIFIES: tracker
-    // EFFECTS: parses tracks from JSON object and adds them to tracker
-    private void addTrackList(Tracker tracker, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("trackList");
-        for (Object json : jsonArray) {
-            JSONObject nextTrack = (JSONObject) json;
-            addTrack(tracker, nextTrack);
+    // EFFECTS: parses tracks from JSON and adds them to tracker
+    private void addTrackList(Tracker tracker, JsonTokenizer tokenizer) throws IOException {
+        tokenizer.beginArray();
+        while (tokenizer.hasNextElement()) {
+            addTrack(tracker, tokenizer);
         }
     }
 
     // MODIFIES: tracker
-    // EFFECTS: parses track from JSON object and adds it to tracker
-    private void addTrack(Tracker tracker, JSONObject jsonObject) {
-        String name = jsonObject.getString("name");
-        int tempo = jsonObject.getInt("tempo");
-        Track track = new Track(name);
-        track.setTempo(tempo);
-        setNumberOfBars(track, jsonObject);
-        addInstrumentChannel(track, jsonObject, "pulse1");
-        addInstrumentChannel(track, jsonObject, "pulse2");
-        addInstrumentChannel(track, jsonObject, "triangle");
-        addInstrumentChannel(track, jsonObject, "noise");
-        tracker.add(track);
+    // EFFECTS: parses track from JSON and adds it to tracker; the members of a track may come in any order,
+    //          so its channels are kept until the whole object has been read
+    private void addTrack(Tracker tracker, JsonTokenizer tokenizer) throws IOException {
+        TrackData trackData = new TrackData();
+        tokenizer.beginObject();
+        for (String key = tokenizer.nextKey(); key != null; key = tokenizer.nextKey()) {
+            if (key.equals("name")) {
+                trackData.name = tokenizer.nextString();
+            } else if (key.equals("tempo")) {
+                trackData.tempo = tokenizer.nextInt();
+            } else if (key.equals("numberOfBars")) {
+                trackData.numberOfBars = tokenizer.nextInt();
+            } else {
+                addChannelData(trackData, tokenizer, key);
+            }
+        }
+        tracker.add(makeTrack(trackData));
     }
 
-    // MODIFIES: track
-    // EFFECTS: parses the number of bars from JSON object and sets the track accordingly
-    private void setNumberOfBars(Track track, JSONObject jsonObject) {
-        int numberOfBars = jsonObject.getInt("numberOfBars");
-        int initialNumOfBars = InstrumentChannel.INITIAL_NUM_OF_BARS;
-        if (numberOfBars < initialNumOfBars) {
-            track.removeBars(initialNumOfBars - numberOfBars);
-        } else if (numberOfBars > initialNumOfBars) {
-            track.addBars(numberOfBars - initialNumOfBars);
+    // MODIFIES: trackData
+    // EFFECTS: parses the instrument channel with the given key from JSON and adds it to trackData,
+    //          or skips the value if key does not belong to a channel
+    private void addChannelData(TrackData trackData, JsonTokenizer tokenizer, String key) throws IOException {
+        for (Channel channel : Channel.values()) {
+            if (channel.getKey().equals(key)) {
+                trackData.channels.put(channel, parseChannelData(tokenizer));
+                return;
+            }
         }
+        tokenizer.skipValue();
     }
 
-    // MODIFIES: track
-    // EFFECTS: parses instrument channel from JSON object and adds it to track
-    private void addInstrumentChannel(Track track, JSONObject jsonObject, String channel) {
-        JSONObject instrumentChannel = jsonObject.getJSONObject(channel);
-        addEventList(track, instrumentChannel, channel);
+    // EFFECTS: constructs the track described by trackData and returns it;
+    //          throws JSONException if trackData is missing a member or has a tempo or number of bars out of range
+    private Track makeTrack(TrackData trackData) {
+        checkTrackData(trackData);
+        Track track = new Track(trackData.name);
+        track.setTempo(trackData.tempo);
+        track.setNumberOfBars(trackData.numberOfBars);
+        for (Map.Entry<Channel, ChannelData> entry : trackData.channels.entrySet()) {
+            addInstrumentChannel(track, entry.getValue(), entry.getKey());
+        }
+        track.deduplicateBars();
+        return track;
     }
 
-    // MODIFIES: track
-    // EFFECTS: parses events from JSON object and adds them to track in channel
-    private void addEventList(Track track, JSONObject jsonObject, String channel) {
-        JSONArray jsonArray = jsonObject.getJSONArray("eventList");
-        int row = 1;
-        for (Object json : jsonArray) {
-            JSONObject nextEvent = (JSONObject) json;
-            addEvent(track, nextEvent, channel, row);
-            row++;
+    // EFFECTS: throws JSONException if trackData is missing a member, its tempo is outside Track.MIN_BPM to
+    //          Track.MAX_BPM or it has fewer than 1 bar
+    private void checkTrackData(TrackData trackData) {
+        if (trackData.name == null || trackData.tempo < 0 || trackData.numberOfBars < 0
+                || trackData.channels.size() != Channel.NUM_CHANNELS) {
+            throw new JSONException("Track " + trackData.name + " is missing a member");
+        }
+        if (trackData.tempo < Track.MIN_BPM || trackData.tempo > Track.MAX_BPM) {
+            throw new JSONException("Track " + trackData.name + " has tempo " + trackData.tempo + " outside "
+                    + Track.MIN_BPM + " to " + Track.MAX_BPM + " BPM");
+        }
+        if (trackData.numberOfBars < 1) {
+            throw new JSONException("Track " + trackData.name + " has no bars");
         }
     }
 
     // MODIFIES: track
-    // EFFECTS: parses event from JSON object and adds it to track in channel at given row
-    private void addEvent(Track track, JSONObject jsonObject, String channel, int row) {
-        String type = jsonObject.getString("type");
-        int pitch = jsonObject.getInt("pitch");
-        boolean isStaccato = jsonObject.getBoolean("isStaccato");
-        if (type.equals("note")) {
-            track.addNote(channel, row, pitch);
-            if (isStaccato) {
-                track.makeStaccato(channel, row);
+    // EFFECTS: adds the events of channelData to track in channel;
+    //          throws JSONException if channelData does not have exactly one bar or row for each bar or row of track
+    //          or its order list refers to a pattern that does not exist
+    private void addInstrumentChannel(Track track, ChannelData channelData, Channel channel) {
+        if (channelData.orderList != null) {
+            checkOrderList(channelData.orderList, channelData.patterns.size(), track.numberOfBars());
+            track.setBars(channel, channelData.patterns, channelData.orderList);
+        } else {
+            if (channelData.eventList.size() != track.numberOfRows()) {
+                throw new JSONException("Event list has " + channelData.eventList.size() + " events for "
+                        + track.numberOfRows() + " rows");
+            }
+            int row = 1;
+            for (Event event : channelData.eventList) {
+                track.setEvent(channel, row, event);
+                row++;
+            }
+        }
+    }
+
+    // EFFECTS: throws JSONException if orderList does not have numberOfBars elements or one of them is not the index
+    //          of one of numberOfPatterns patterns
+    private void checkOrderList(int[] orderList, int numberOfPatterns, int numberOfBars) {
+        if (orderList.length != numberOfBars) {
+            throw new JSONException("Order list has " + orderList.length + " bars for " + numberOfBars + " bars");
+        }
+        for (int index : orderList) {
+            if (index < 0 || index >= numberOfPatterns) {
+                throw new JSONException("Order list refers to pattern " + index + " of " + numberOfPatterns);
             }
-        } else if (type.equals("rest")) {
-            track.addRest(channel, row);
         }
     }
+
+    // EFFECTS: parses instrument channel from JSON and returns its events
+    private ChannelData parseChannelData(JsonTokenizer tokenizer) throws IOException {
+        ChannelData channelData = new ChannelData();
+        tokenizer.beginObject();
+        for (String key = tokenizer.nextKey(); key != null; key = tokenizer.nextKey()) {
+            if (key.equals("patterns")) {
+                channelData.patterns = parsePatterns(tokenizer);
+            } else if (key.equals("orderList")) {
+                channelData.orderList = parseIntArray(tokenizer);
+            } else if (key.equals("eventList")) {
+                channelData.eventList = parseEventList(tokenizer);
+            } else {
+                tokenizer.skipValue();
+            }
+        }
+        if (channelData.orderList != null ? channelData.patterns == null : channelData.eventList == null) {
+            throw new JSONException("Instrument channel has no events");
+        }
+        return channelData;
+    }
+
+    // EFFECTS: parses bar patterns from JSON and returns them
+    private List<Event[]> parsePatterns(JsonTokenizer tokenizer) throws IOException {
+        List<Event[]> patterns = new ArrayList<>();
+        tokenizer.beginArray();
+        while (tokenizer.hasNextElement()) {
+            patterns.add(parsePattern(tokenizer));
+        }
+        return patterns;
+    }
+
+    // EFFECTS: parses a bar pattern from JSON, either an array with every event of the bar or an object with the events
+    //          that are not blank and their offsets into the bar, and returns it
+    private Event[] parsePattern(JsonTokenizer tokenizer) throws IOException {
+        Event[] pattern = new Event[InstrumentChannel.ROWS_PER_BAR];
+        if (tokenizer.peek() == '{') {
+            parseSparsePattern(tokenizer, pattern);
+        } else {
+            tokenizer.beginArray();
+            for (int i = 0; i < pattern.length; i++) {
+                if (!tokenizer.hasNextElement()) {
+                    throw new JSONException("Bar pattern has fewer than " + pattern.length + " events");
+                }
+                pattern[i] = parseEvent(tokenizer);
+            }
+            while (tokenizer.hasNextElement()) {
+                tokenizer.skipValue();
+            }
+        }
+        return pattern;
+    }
+
+    // MODIFIES: pattern
+    // EFFECTS: parses a bar pattern stored as offsets and events from JSON into pattern;
+    //          throws JSONException if the numbers of offsets and events differ or an offset is outside the bar
+    private void parseSparsePattern(JsonTokenizer tokenizer, Event[] pattern) throws IOException {
+        int[] offsets = new int[0];
+        List<Event> events = new ArrayList<>();
+        tokenizer.beginObject();
+        for (String key = tokenizer.nextKey(); key != null; key = tokenizer.nextKey()) {
+            if (key.equals("offsets")) {
+                offsets = parseIntArray(tokenizer);
+            } else if (key.equals("events")) {
+                events = parseEventList(tokenizer);
+            } else {
+                tokenizer.skipValue();
+            }
+        }
+        if (offsets.length != events.size()) {
+            throw new JSONException("Bar pattern has " + offsets.length + " offsets and " + events.size() + " events");
+        }
+        Arrays.fill(pattern, Event.BLANK);
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0 || offsets[i] >= pattern.length) {
+                throw new JSONException("Bar pattern has an event at offset " + offsets[i]);
+            }
+            pattern[offsets[i]] = events.get(i);
+        }
+    }
+
+    // EFFECTS: parses an array of integers from JSON and returns it
+    private int[] parseIntArray(JsonTokenizer tokenizer) throws IOException {
+        int[] values = new int[InstrumentChannel.INITIAL_NUM_OF_BARS];
+        int size = 0;
+        tokenizer.beginArray();
+        while (tokenizer.hasNextElement()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = tokenizer.nextInt();
+            size++;
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    // EFFECTS: parses an array of events from JSON and returns them
+    private List<Event> parseEventList(JsonTokenizer tokenizer) throws IOException {
+        List<Event> eventList = new ArrayList<>();
+        tokenizer.beginArray();
+        while (tokenizer.hasNextElement()) {
+            eventList.add(parseEvent(tokenizer));
+        }
+        return eventList;
+    }
+
+    // EFFECTS: parses event from JSON and returns it; throws JSONException if it is a note with a pitch outside
+    //          1 to Event.MAX_PITCH
+    private Event parseEvent(JsonTokenizer tokenizer) throws IOException {
+        String type = null;
+        int pitch = 0;
+        boolean isStaccato = false;
+        tokenizer.beginObject();
+        for (String key = tokenizer.nextKey(); key != null; key = tokenizer.nextKey()) {
+            if (key.equals("type")) {
+                type = tokenizer.nextString();
+            } else if (key.equals("pitch")) {
+                pitch = tokenizer.nextInt();
+            } else if (key.equals("isStaccato")) {
+                isStaccato = tokenizer.nextBoolean();
+            } else {
+                tokenizer.skipValue();
+            }
+        }
+        if ("note".equals(type)) {
+            if (pitch < 1 || pitch > Event.MAX_PITCH) {
+                throw new JSONException("Note has pitch " + pitch + " outside 1 to " + Event.MAX_PITCH);
+            }
+            return Event.note(pitch, isStaccato);
+        } else if ("rest".equals(type)) {
+            return Event.REST;
+        }
+        return Event.BLANK;
+    }
+
+    // represents the members of a track that have been read so far
+    private static class TrackData {
+        private String name;
+        private int tempo = -1;
+        private int numberOfBars = -1;
+        private final Map<Channel, ChannelData> channels = new EnumMap<>(Channel.class);
+    }
+
+    // represents the events of an instrument channel, either as bar patterns and an order list or as a flat event list
+    private static class ChannelData {
+        private List<Event[]> patterns;
+        private int[] orderList;
+        private List<Event> eventList;
+    }
 }
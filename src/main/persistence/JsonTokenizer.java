@@ -0,0 +1,245 @@
+package persistence;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Represents a tokenizer that reads JSON values one token at a time from a character stream
+// Characters are read into a fixed size buffer, so reading a document of any size uses a constant amount of memory
+// besides the values that are returned. Malformed JSON throws JSONException, like the rest of the JSON library
+class JsonTokenizer {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final StringBuilder stringBuilder;
+    private int bufferPos;
+    private int bufferEnd;
+    private long charsRead;
+
+    // EFFECTS: constructs a tokenizer that reads from reader
+    JsonTokenizer(Reader reader) {
+        this.reader = reader;
+        buffer = new char[BUFFER_SIZE];
+        stringBuilder = new StringBuilder();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the start of an object
+    void beginObject() throws IOException {
+        expect('{');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the next key of the current object and the colon after it and returns the key,
+    //          or reads the end of the object and returns null if it has no more members
+    String nextKey() throws IOException {
+        char c = peek();
+        if (c == '}') {
+            bufferPos++;
+            return null;
+        } else if (c == ',') {
+            bufferPos++;
+        }
+        String key = nextString();
+        expect(':');
+        return key;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the start of an array
+    void beginArray() throws IOException {
+        expect('[');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns true if the current array has another element, reading the comma before it,
+    //          otherwise reads the end of the array and returns false
+    boolean hasNextElement() throws IOException {
+        char c = peek();
+        if (c == ']') {
+            bufferPos++;
+            return false;
+        } else if (c == ',') {
+            bufferPos++;
+        }
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a string and returns it
+    String nextString() throws IOException {
+        expect('"');
+        stringBuilder.setLength(0);
+        for (char c = nextChar(); c != '"'; c = nextChar()) {
+            stringBuilder.append(c == '\\' ? nextEscaped() : c);
+        }
+        return stringBuilder.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a number and returns it as an int, dropping any fractional part;
+    //          throws JSONException if it is not a number or does not fit in an int
+    int nextInt() throws IOException {
+        peek();
+        stringBuilder.setLength(0);
+        while (fill() && isNumberChar(buffer[bufferPos])) {
+            stringBuilder.append(buffer[bufferPos++]);
+        }
+        String number = stringBuilder.toString();
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            double value;
+            try {
+                value = Double.parseDouble(number);
+            } catch (NumberFormatException e2) {
+                throw syntaxError("Expected a number but found \"" + number + "\"");
+            }
+            if (value <= Integer.MIN_VALUE - 1.0 || value >= Integer.MAX_VALUE + 1.0) {
+                throw syntaxError("Number " + number + " does not fit in an int");
+            }
+            return (int) value;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads true or false and returns it
+    boolean nextBoolean() throws IOException {
+        String literal = nextLiteral();
+        if (literal.equals("true")) {
+            return true;
+        } else if (literal.equals("false")) {
+            return false;
+        }
+        throw syntaxError("Expected a boolean but found \"" + literal + "\"");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the next value, of any type, without keeping it
+    void skipValue() throws IOException {
+        char c = peek();
+        if (c == '{') {
+            beginObject();
+            for (String key = nextKey(); key != null; key = nextKey()) {
+                skipValue();
+            }
+        } else if (c == '[') {
+            beginArray();
+            while (hasNextElement()) {
+                skipValue();
+            }
+        } else if (c == '"') {
+            nextString();
+        } else {
+            nextLiteral();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next character that is not whitespace without reading it;
+    //          throws JSONException if the end of the input is reached
+    char peek() throws IOException {
+        while (fill()) {
+            char c = buffer[bufferPos];
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+            bufferPos++;
+        }
+        throw syntaxError("Unexpected end of input");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the next character that is not whitespace; throws JSONException if it is not c
+    private void expect(char c) throws IOException {
+        char found = peek();
+        if (found != c) {
+            throw syntaxError("Expected '" + c + "' but found '" + found + "'");
+        }
+        bufferPos++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a literal such as a number, true, false, or null and returns it
+    private String nextLiteral() throws IOException {
+        peek();
+        stringBuilder.setLength(0);
+        while (fill() && (Character.isLetter(buffer[bufferPos]) || isNumberChar(buffer[bufferPos]))) {
+            stringBuilder.append(buffer[bufferPos++]);
+        }
+        return stringBuilder.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the character escaped by the backslash that was just read and returns it;
+    //          throws JSONException if it is a unicode escape that is not followed by four hex digits
+    private char nextEscaped() throws IOException {
+        char c = nextChar();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                return nextHexChar();
+            default:
+                return c;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads four hex digits and returns the character with that code;
+    //          throws JSONException if one of them is not a hex digit
+    private char nextHexChar() throws IOException {
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = nextChar();
+            int digit = c < 128 ? Character.digit(c, 16) : -1;
+            if (digit < 0) {
+                throw syntaxError("Expected a hex digit but found '" + c + "'");
+            }
+            code = code * 16 + digit;
+        }
+        return (char) code;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the next character, including whitespace; throws JSONException at the end of the input
+    private char nextChar() throws IOException {
+        if (!fill()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer[bufferPos++];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refills the buffer from the reader if every character in it has been read,
+    //          returns false if there are no characters left in the input
+    private boolean fill() throws IOException {
+        if (bufferPos < bufferEnd) {
+            return true;
+        }
+        charsRead += bufferEnd;
+        bufferPos = 0;
+        bufferEnd = Math.max(reader.read(buffer), 0);
+        return bufferEnd > 0;
+    }
+
+    // EFFECTS: returns true if c can be part of a number
+    private static boolean isNumberChar(char c) {
+        return c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    // EFFECTS: returns an exception describing a syntax error at the current position
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + (charsRead + bufferPos));
+    }
+}
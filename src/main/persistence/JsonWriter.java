@@ -5,13 +5,21 @@ import org.json.JSONObject;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 
 // Represents a writer that writes JSON representation of tracker to file
+// The JSON is written to a temporary file that is forced to disk and renamed over the destination file when the
+// writer is closed, so the destination file is never left partly written (see AtomicFile)
 public class JsonWriter {
     private static final int TAB = 4;
     private PrintWriter writer;
+    private FileOutputStream stream;
     private final String destination;
+    private File temporaryFile;
 
     // EFFECTS: constructs writer to write to destination file
     public JsonWriter(String destination) {
@@ -22,7 +30,9 @@ public class JsonWriter {
     // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
     // be opened for writing
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+        temporaryFile = new File(destination + ".tmp");
+        stream = new FileOutputStream(temporaryFile);
+        writer = new PrintWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
     }
 
     // MODIFIES: this
@@ -33,9 +43,22 @@ public class JsonWriter {
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
-    public void close() {
+    // EFFECTS: closes writer, forcing what was written to disk and replacing destination file with it;
+    //          throws IOException if an error occurs writing to file, in which case destination file is unchanged
+    public void close() throws IOException {
+        writer.flush();
+        try {
+            if (writer.checkError()) {
+                throw new IOException("Unable to write to " + temporaryFile);
+            }
+            stream.getFD().sync();
+        } catch (IOException e) {
+            writer.close();
+            AtomicFile.discard(temporaryFile.toPath());
+            throw e;
+        }
         writer.close();
+        AtomicFile.replace(temporaryFile.toPath(), new File(destination).toPath());
     }
 
     // MODIFIES: this
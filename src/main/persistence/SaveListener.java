@@ -0,0 +1,12 @@
+package persistence;
+
+import java.io.IOException;
+
+// represents a listener that is told when a save running in the background has finished
+public interface SaveListener {
+    // EFFECTS: called once everything has been saved
+    void saveCompleted();
+
+    // EFFECTS: called with the reason if the save failed, in which case the file still holds what was saved before
+    void saveFailed(IOException e);
+}
@@ -0,0 +1,484 @@
+package persistence;
+
+import model.Track;
+import model.TrackLoader;
+import model.Tracker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+// Represents a library of tracks stored in a binary tracker file (see BinaryWriter) that is opened by reading only
+// the header and the track directory. The events of a track are read from the file the first time the track is used,
+// and at most maxResidentTracks of the tracks read from the file are kept in memory: when a track is loaded, the least
+// recently used tracks that have not been edited since they were read or saved are unloaded again
+// Saving only writes the tracks that are new or have been edited since they were read or saved: their blocks and a
+// new directory are appended to the file, then the header is changed to point at the new directory. The blocks of
+// tracks that were not edited stay where they are, and when more than half of the file would no longer be used,
+// the whole file is rewritten instead
+// Saves are crash safe: appended data is forced to disk before the header is changed, and the header change is a single
+// write that makes the new directory current, so a crash before it leaves the old directory in place, while a
+// rewrite goes to a temporary file that is forced to disk and renamed over the file (see AtomicFile)
+// A save can run on a background thread: when the save starts, only a copy-on-write snapshot of each edited track is
+// taken (see Track.snapshot), so the tracks can be edited while it runs; the snapshots are encoded and written on the
+// background thread, and the result is handed back through the callback executor, which must run tasks on the thread
+// that uses the tracks and the library. Saves requested while one is running are combined
+// into one save that starts when it finishes
+// The file is kept open until the library is closed, and tracks that are not in the file are always kept in memory
+public class TrackLibrary implements TrackLoader {
+    public static final int DEFAULT_MAX_RESIDENT_TRACKS = 8;
+
+    private final String source;
+    private final int maxResidentTracks;
+    private final BinaryReader reader;
+    private final Map<Track, DirectoryEntry> entries;
+    private final Map<Track, Long> savedVersions;
+    private final List<Track> residentTracks;
+    private final Executor callbackExecutor;
+    private final List<SaveListener> pendingListeners;
+    private Tracker pendingTracker;
+    private boolean isSaving;
+    private FileChannel channel;
+
+    // REQUIRES: maxResidentTracks > 0
+    // EFFECTS: constructs a library that reads from and saves to source file, keeps at most maxResidentTracks
+    //          of its tracks in memory, and finishes background saves on the thread that finishes writing them
+    public TrackLibrary(String source, int maxResidentTracks) {
+        this(source, maxResidentTracks, Runnable::run);
+    }
+
+    // REQUIRES: maxResidentTracks > 0
+    // EFFECTS: constructs a library that reads from and saves to source file, keeps at most maxResidentTracks
+    //          of its tracks in memory, and finishes background saves by running a task on callbackExecutor
+    public TrackLibrary(String source, int maxResidentTracks, Executor callbackExecutor) {
+        this.source = source;
+        this.maxResidentTracks = maxResidentTracks;
+        this.callbackExecutor = callbackExecutor;
+        reader = new BinaryReader(source);
+        entries = new IdentityHashMap<>();
+        savedVersions = new IdentityHashMap<>();
+        residentTracks = new ArrayList<>();
+        pendingListeners = new ArrayList<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the file and returns a tracker with every track in its directory, none of which are loaded;
+    //          throws IOException if an error occurs reading data from file or the file is not a valid tracker file
+    public Tracker open() throws IOException {
+        channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return readDirectory();
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            close();
+            throw reader.corruptFile();
+        }
+    }
+
+    // REQUIRES: no save is running in the background
+    // MODIFIES: this
+    // EFFECTS: saves every track in tracker to the file, writing the events of only the tracks that are new or have
+    //          been edited since they were read or saved, and creates the file if the library was not opened;
+    //          throws IOException if an error occurs writing to file
+    public void save(Tracker tracker) throws IOException {
+        Save save = planSave(tracker);
+        writeSave(save);
+        commit(save);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts saving every track in tracker to the file like save does, but writes the file on a background
+    //          thread, then finishes the save and tells listener whether it succeeded on the callback executor;
+    //          if a save is already running, saves tracker once it has finished instead
+    public void saveInBackground(Tracker tracker, SaveListener listener) {
+        if (isSaving) {
+            pendingTracker = tracker;
+            pendingListeners.add(listener);
+            return;
+        }
+        Save save = planSave(tracker);
+        isSaving = true;
+        Thread writerThread = new Thread(() -> {
+            IOException failure = tryWriteSave(save);
+            callbackExecutor.execute(() -> finishSave(save, failure, listener));
+        }, "Track Library Writer");
+        writerThread.start();
+    }
+
+    // EFFECTS: returns true if a save is running in the background
+    public boolean isSaving() {
+        return isSaving;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the file; tracks from the library that are not loaded can no longer be loaded
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // EFFECTS: returns the number of tracks from the file that are loaded
+    public int numberOfResidentTracks() {
+        return residentTracks.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks track as the most recently used track if it is loaded from the library
+    public void use(Track track) {
+        if (removeResidentTrack(track)) {
+            residentTracks.add(track);
+        }
+    }
+
+    // REQUIRES: track is from this library and has not been loaded
+    // MODIFIES: this, track
+    // EFFECTS: reads the events of track from the file, then unloads the least recently used unedited tracks until
+    //          at most maxResidentTracks are loaded; throws UncheckedIOException if the events cannot be read
+    @Override
+    public void load(Track track) {
+        DirectoryEntry entry = entries.get(track);
+        try {
+            reader.addBars(track, readBlock(entry.offset, entry.length));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        residentTracks.add(track);
+        unloadLeastRecentlyUsed();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the header and the directory of the file and returns a tracker with an unloaded track for
+    //          each directory entry
+    private Tracker readDirectory() throws IOException {
+        long directoryOffset = reader.parseHeader(readBlock(0, BinaryWriter.HEADER_SIZE));
+        long fileSize = channel.size();
+        if (directoryOffset < BinaryWriter.HEADER_SIZE || fileSize - directoryOffset > Integer.MAX_VALUE) {
+            throw reader.corruptFile();
+        }
+        ByteBuffer directory = readBlock(directoryOffset, (int) (fileSize - directoryOffset));
+        Tracker tracker = new Tracker();
+        for (DirectoryEntry entry : reader.parseDirectory(directory, fileSize)) {
+            Track track = new Track(entry.name, entry.tempo, entry.numberOfBars, this);
+            entries.put(track, entry);
+            savedVersions.put(track, track.getVersion());
+            tracker.add(track);
+        }
+        return tracker;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the result of a background save and tells listener about it, then starts the save that was
+    //          requested while it was running, if there is one
+    private void finishSave(Save save, IOException failure, SaveListener listener) {
+        isSaving = false;
+        if (failure == null) {
+            commit(save);
+            listener.saveCompleted();
+        } else {
+            listener.saveFailed(failure);
+        }
+        if (pendingTracker != null) {
+            List<SaveListener> listeners = new ArrayList<>(pendingListeners);
+            Tracker tracker = pendingTracker;
+            pendingTracker = null;
+            pendingListeners.clear();
+            saveInBackground(tracker, new SaveListeners(listeners));
+        }
+    }
+
+    // MODIFIES: tracker
+    // EFFECTS: returns a snapshot of tracker to be saved: the directory entries of its tracks with a snapshot of each
+    //          track that is new or has been edited, keeping the offsets of the blocks of the other tracks in the file
+    private Save planSave(Tracker tracker) {
+        Save save = new Save();
+        for (Track track : tracker.getTrackList()) {
+            DirectoryEntry entry = BinaryWriter.makeEntry(track);
+            Track snapshot = null;
+            if (isUnedited(track)) {
+                entry.offset = entries.get(track).offset;
+                entry.length = entries.get(track).length;
+            } else {
+                snapshot = track.snapshot();
+            }
+            save.tracks.add(track);
+            save.versions.add(track.getVersion());
+            save.directory.add(entry);
+            save.snapshots.add(snapshot);
+        }
+        return save;
+    }
+
+    // MODIFIES: save
+    // EFFECTS: encodes the blocks of the track snapshots of save and decides whether the file is to be rewritten
+    //          rather than appended to
+    private void encodeSave(Save save) throws IOException {
+        for (int i = 0; i < save.snapshots.size(); i++) {
+            DirectoryEntry entry = save.directory.get(i);
+            Track snapshot = save.snapshots.get(i);
+            byte[] block = snapshot == null ? null : BinaryWriter.encodeTrack(snapshot);
+            if (block != null) {
+                entry.length = block.length;
+                save.newBytes += block.length;
+            }
+            save.liveBytes += entry.length;
+            save.blocks.add(block);
+        }
+        save.isRewrite = channel == null
+                || channel.size() + save.newBytes > 2 * (BinaryWriter.HEADER_SIZE + save.liveBytes);
+    }
+
+    // EFFECTS: writes save to the file and returns null, or returns the exception if an error occurs writing to file
+    private IOException tryWriteSave(Save save) {
+        try {
+            writeSave(save);
+            return null;
+        } catch (IOException e) {
+            return e;
+        }
+    }
+
+    // EFFECTS: encodes save and writes it to the file, appending to it or rewriting it
+    private void writeSave(Save save) throws IOException {
+        encodeSave(save);
+        if (save.isRewrite) {
+            rewrite(save);
+        } else {
+            append(save);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the new blocks and the directory of save at the end of the file and forces them to disk,
+    //          then points the header at the new directory and forces it to disk
+    private void append(Save save) throws IOException {
+        long position = channel.size();
+        for (int i = 0; i < save.blocks.size(); i++) {
+            byte[] block = save.blocks.get(i);
+            if (block != null) {
+                save.directory.get(i).offset = position;
+                writeBlock(channel, block, position);
+                position += block.length;
+            }
+        }
+        writeBlock(channel, encodeDirectory(save.directory), position);
+        channel.force(false);
+        BinaryWriter.writeDirectoryOffset(channel, position);
+        channel.force(false);
+    }
+
+    // MODIFIES: save
+    // EFFECTS: writes every block of save, copying the blocks that are kept from the file, and the directory to a
+    //          temporary file and forces it to disk, then renames it over the file and opens it for save to use
+    private void rewrite(Save save) throws IOException {
+        Path path = Paths.get(source);
+        Path temporaryFile = AtomicFile.temporaryFile(path);
+        try (FileChannel out = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = writeBlocks(save, out);
+            writeBlock(out, encodeDirectory(save.directory), position);
+            writeBlock(out, encodeHeader(position), 0);
+            out.force(true);
+        } catch (IOException e) {
+            AtomicFile.discard(temporaryFile);
+            throw e;
+        }
+        AtomicFile.replace(temporaryFile, path);
+        save.rewrittenChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // MODIFIES: save
+    // EFFECTS: writes every block of save to out one after another after the header, copying the blocks that are
+    //          kept from the file, and returns the position after the last block
+    private long writeBlocks(Save save, FileChannel out) throws IOException {
+        long position = BinaryWriter.HEADER_SIZE;
+        for (int i = 0; i < save.blocks.size(); i++) {
+            DirectoryEntry entry = save.directory.get(i);
+            if (save.blocks.get(i) == null) {
+                copyBlock(entry.offset, entry.length, out, position);
+            } else {
+                writeBlock(out, save.blocks.get(i), position);
+            }
+            entry.offset = position;
+            position += entry.length;
+        }
+        return position;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records where each track of save is stored and the version it was saved at, forgets the tracks that
+    //          are no longer in the library, and unloads tracks if more than maxResidentTracks are loaded
+    private void commit(Save save) {
+        if (save.rewrittenChannel != null) {
+            closeQuietly();
+            channel = save.rewrittenChannel;
+        }
+        entries.clear();
+        savedVersions.clear();
+        for (int i = 0; i < save.tracks.size(); i++) {
+            entries.put(save.tracks.get(i), save.directory.get(i));
+            savedVersions.put(save.tracks.get(i), save.versions.get(i));
+        }
+        residentTracks.removeIf(track -> !entries.containsKey(track));
+        Set<Track> resident = Collections.newSetFromMap(new IdentityHashMap<>());
+        resident.addAll(residentTracks);
+        for (Track track : save.tracks) {
+            if (track.isLoaded() && resident.add(track)) {
+                residentTracks.add(0, track);
+            }
+        }
+        unloadLeastRecentlyUsed();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: unloads the least recently used tracks other than the most recently used one that have not been
+    //          edited, until at most maxResidentTracks tracks are loaded or none can be unloaded
+    private void unloadLeastRecentlyUsed() {
+        int i = 0;
+        while (residentTracks.size() > maxResidentTracks && i < residentTracks.size() - 1) {
+            Track track = residentTracks.get(i);
+            if (isUnedited(track)) {
+                residentTracks.remove(i);
+                track.unload(this);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    // EFFECTS: returns true if track is stored in the file and has not been edited since it was read or saved
+    private boolean isUnedited(Track track) {
+        Long savedVersion = savedVersions.get(track);
+        return savedVersion != null && savedVersion == track.getVersion();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the file that has been replaced by a rewrite, which no track reads from anymore
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes track from the loaded tracks and returns true if it was loaded from the library
+    private boolean removeResidentTrack(Track track) {
+        for (int i = 0; i < residentTracks.size(); i++) {
+            if (residentTracks.get(i) == track) {
+                residentTracks.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // EFFECTS: reads length bytes starting at offset from the file and returns them;
+    //          throws IOException if the file ends first
+    private ByteBuffer readBlock(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw reader.corruptFile();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // MODIFIES: out
+    // EFFECTS: copies length bytes starting at offset in the file to out starting at position
+    private void copyBlock(long offset, int length, FileChannel out, long position) throws IOException {
+        out.position(position);
+        long copied = 0;
+        while (copied < length) {
+            long transferred = channel.transferTo(offset + copied, length - copied, out);
+            if (transferred <= 0) {
+                throw reader.corruptFile();
+            }
+            copied += transferred;
+        }
+    }
+
+    // MODIFIES: out
+    // EFFECTS: writes block to out starting at position
+    private static void writeBlock(FileChannel out, byte[] block, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        while (buffer.hasRemaining()) {
+            out.write(buffer, position + buffer.position());
+        }
+    }
+
+    // EFFECTS: returns directory in the binary tracker format
+    private static byte[] encodeDirectory(List<DirectoryEntry> directory) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryWriter.writeDirectory(new DataOutputStream(bytes), directory);
+        return bytes.toByteArray();
+    }
+
+    // EFFECTS: returns the header of a tracker file whose directory is at directoryOffset
+    private static byte[] encodeHeader(long directoryOffset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryWriter.writeHeader(new DataOutputStream(bytes), directoryOffset);
+        return bytes.toByteArray();
+    }
+
+    // Represents the tracks of a tracker as they are to be saved: the directory entry of each track, a snapshot of each
+    // track that is new or has been edited, or null if its block in the file is kept, and the version of each track
+    // when the save was planned. The blocks of the snapshots are encoded when the save is written, and once written,
+    // a rewritten file is open in rewrittenChannel
+    private static class Save {
+        private final List<Track> tracks = new ArrayList<>();
+        private final List<Long> versions = new ArrayList<>();
+        private final List<DirectoryEntry> directory = new ArrayList<>();
+        private final List<Track> snapshots = new ArrayList<>();
+        private final List<byte[]> blocks = new ArrayList<>();
+        private long liveBytes;
+        private long newBytes;
+        private boolean isRewrite;
+        private FileChannel rewrittenChannel;
+    }
+
+    // Represents a group of listeners that are all told about the same save
+    private static class SaveListeners implements SaveListener {
+        private final List<SaveListener> listeners;
+
+        // EFFECTS: constructs a listener that passes every call on to each of listeners
+        private SaveListeners(List<SaveListener> listeners) {
+            this.listeners = listeners;
+        }
+
+        // EFFECTS: see super
+        @Override
+        public void saveCompleted() {
+            for (SaveListener listener : listeners) {
+                listener.saveCompleted();
+            }
+        }
+
+        // EFFECTS: see super
+        @Override
+        public void saveFailed(IOException e) {
+            for (SaveListener listener : listeners) {
+                listener.saveFailed(e);
+            }
+        }
+    }
+}
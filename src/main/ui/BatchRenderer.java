@@ -0,0 +1,125 @@
+package ui;
+
+import model.Track;
+import model.Tracker;
+import org.json.JSONException;
+import persistence.BinaryReader;
+import persistence.JsonReader;
+import ui.sound.OfflineRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Renders every track of a tracker file to WAV files in parallel without opening any windows
+// Usage: BatchRenderer <tracker file> <output directory> [number of threads]
+// The tracker file is read as JSON if its name ends in .json, and in the binary tracker format otherwise
+public class BatchRenderer {
+    private static final String USAGE = "Usage: BatchRenderer <tracker file> <output directory> [threads]";
+
+    private final File outputDirectory;
+    private final int numThreads;
+
+    // EFFECTS: constructs a batch renderer that writes to outputDirectory using numThreads worker threads
+    public BatchRenderer(File outputDirectory, int numThreads) {
+        this.outputDirectory = outputDirectory;
+        this.numThreads = numThreads;
+    }
+
+    // EFFECTS: renders the tracker file given on the command line and exits with status 1 if the file cannot be read
+    //          or anything failed
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int numThreads = args.length > 2 ? parseNumThreads(args[2]) : Runtime.getRuntime().availableProcessors();
+        if (args.length < 2 || numThreads < 1) {
+            System.out.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            Tracker tracker = args[0].endsWith(".json") ? new JsonReader(args[0]).read()
+                    : new BinaryReader(args[0]).read();
+            int numFailed = new BatchRenderer(new File(args[1]), numThreads).render(tracker);
+            System.exit(numFailed == 0 ? 0 : 1);
+        } catch (IOException e) {
+            System.out.println("Unable to read from file: " + args[0]);
+            System.exit(1);
+        } catch (JSONException e) {
+            System.out.println("Malformed tracker file: " + args[0] + " (" + e.getMessage() + ")");
+            System.exit(1);
+        }
+    }
+
+    // EFFECTS: returns the number of threads given on the command line, or 0 if it is not a number
+    private static int parseNumThreads(String arg) {
+        try {
+            return Integer.parseInt(arg);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // MODIFIES: outputDirectory
+    // EFFECTS: renders every track in tracker to its own WAV file in the output directory on a pool of worker
+    //          threads, prints the result of each track and the overall real-time factor,
+    //          and returns the number of tracks that could not be rendered
+    public int render(Tracker tracker) {
+        outputDirectory.mkdirs();
+        long startNanos = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        List<Future<Double>> results = new ArrayList<>();
+        List<Track> trackList = tracker.getTrackList();
+        for (int i = 0; i < trackList.size(); i++) {
+            Track track = trackList.get(i);
+            File destination = new File(outputDirectory, getFileName(i + 1, track));
+            results.add(pool.submit(() -> OfflineRenderer.render(track, destination)));
+        }
+        pool.shutdown();
+
+        int numFailed = reportResults(trackList, results);
+        printSummary(trackList, startNanos);
+        return numFailed;
+    }
+
+    // EFFECTS: waits for each track's render, prints its real-time factor or the reason it failed,
+    //          and returns the number of renders that failed
+    private static int reportResults(List<Track> trackList, List<Future<Double>> results) {
+        int numFailed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            String name = trackList.get(i).getName();
+            try {
+                System.out.println(String.format("Rendered %s at %.0fx real time", name, results.get(i).get()));
+            } catch (ExecutionException e) {
+                System.out.println("Unable to render " + name + ": " + e.getCause());
+                numFailed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return numFailed + results.size() - i;
+            }
+        }
+        return numFailed;
+    }
+
+    // EFFECTS: prints the number of tracks rendered, the elapsed time, and the overall real-time factor
+    private void printSummary(List<Track> trackList, long startNanos) {
+        double elapsedSeconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+        double audioSeconds = 0;
+        for (Track track : trackList) {
+            audioSeconds += OfflineRenderer.getDurationSeconds(track);
+        }
+        System.out.println(String.format("Rendered %d tracks (%.1f s of audio) in %.2f s on %d threads, "
+                + "%.0fx real time", trackList.size(), audioSeconds, elapsedSeconds, numThreads,
+                audioSeconds / elapsedSeconds));
+    }
+
+    // EFFECTS: returns a file name for the track at the given position that is unique within the tracker
+    private static String getFileName(int pos, Track track) {
+        String name = track.getName().replaceAll("[^A-Za-z0-9._-]", "_");
+        return String.format("%04d-%s.wav", pos, name);
+    }
+}
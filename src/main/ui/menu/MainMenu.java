@@ -4,13 +4,15 @@ import model.Track;
 import model.Tracker;
 import persistence.JsonWriter;
 import persistence.JsonReader;
+import persistence.SaveListener;
+import persistence.TrackLibrary;
 import ui.tracker.TrackerApp;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.IOException;
 
 // Represents the main menu for the tracker app
@@ -25,10 +27,10 @@ public class MainMenu extends JFrame {
     public static final Font FONT = new Font("SansSerif", Font.PLAIN, 14);
     private static final Font TITLE_FONT = new Font("SansSerif", Font.BOLD, 20);
 
+    private static final String TRACKER_STORE = "./data/tracker.dat";
     private static final String JSON_STORE = "./data/tracker.json";
 
-    private JsonWriter jsonWriter;
-    private JsonReader jsonReader;
+    private TrackLibrary trackLibrary;
 
     private Tracker tracker;
 
@@ -59,30 +61,69 @@ public class MainMenu extends JFrame {
     // MODIFIES: this
     // EFFECTS: initializes the tracker app fields
     private void initializeFields() {
-        jsonWriter = new JsonWriter(JSON_STORE);
-        jsonReader = new JsonReader(JSON_STORE);
+        trackLibrary = new TrackLibrary(TRACKER_STORE, TrackLibrary.DEFAULT_MAX_RESIDENT_TRACKS,
+                SwingUtilities::invokeLater);
         loadTracker();
     }
 
     // MODIFIES: this
-    // EFFECTS: loads tracker from file
+    // EFFECTS: opens the track library in the tracker file, reading the events of each track only when it is opened,
+    //          or imports the tracker from the JSON file of older versions if there is no binary tracker file yet
     private void loadTracker() {
+        if (!new File(TRACKER_STORE).exists()) {
+            try {
+                tracker = new JsonReader(JSON_STORE).read();
+            } catch (IOException e) {
+                System.out.println("Unable to read from file: " + JSON_STORE);
+            }
+            return;
+        }
         try {
-            tracker = jsonReader.read();
+            tracker = trackLibrary.open();
         } catch (IOException e) {
-            System.out.println("Unable to read from file: " + JSON_STORE);
+            System.out.println("Unable to read from file: " + TRACKER_STORE);
         }
     }
 
-    // EFFECTS: saves the tracker to file
-    private void saveTracker() {
-        try {
-            jsonWriter.open();
-            jsonWriter.write(tracker);
-            jsonWriter.close();
-        } catch (FileNotFoundException e) {
-            System.out.println("Unable to write to file: " + JSON_STORE);
+    // MODIFIES: this
+    // EFFECTS: saves the tracker to file in the background, writing only the tracks that were added or edited since
+    //          the last save, then runs onSaved on the event dispatch thread, or shows an error if the save failed
+    public void saveTracker(Runnable onSaved) {
+        trackLibrary.saveInBackground(tracker, new SaveListener() {
+            @Override
+            public void saveCompleted() {
+                onSaved.run();
+            }
+
+            @Override
+            public void saveFailed(IOException e) {
+                JOptionPane.showMessageDialog(MainMenu.this, "Unable to write to file: " + TRACKER_STORE,
+                        "Save Tracks", JOptionPane.ERROR_MESSAGE, null);
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the tracks in the given JSON tracker file whose names are not already taken to the tracker
+    //          and returns the number of tracks added; throws IOException if the file cannot be read
+    public int importFromJson(File source) throws IOException {
+        int numImported = 0;
+        for (Track track : new JsonReader(source.getPath()).read().getTrackList()) {
+            if (!tracker.hasTrackNamed(track.getName())) {
+                tracker.add(track);
+                numImported++;
+            }
         }
+        return numImported;
+    }
+
+    // EFFECTS: writes every track in the tracker to the given file as JSON;
+    //          throws IOException if an error occurs writing to the file
+    public void exportToJson(File destination) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(destination.getPath());
+        jsonWriter.open();
+        jsonWriter.write(tracker);
+        jsonWriter.close();
     }
 
     // MODIFIES: this
@@ -194,10 +235,9 @@ public class MainMenu extends JFrame {
         layout.show(cardPanel, "load");
     }
 
-    // EFFECTS: saves the tracker data and quits the application
+    // EFFECTS: saves the tracker data and quits the application once it has been saved
     public void quit() {
-        saveTracker();
-        System.exit(0);
+        saveTracker(() -> System.exit(0));
     }
 
     // MODIFIES: this
@@ -212,6 +252,7 @@ public class MainMenu extends JFrame {
     public void openTrack(String name) {
         Track track = tracker.getTrack(name);
         if (!(track == null)) {
+            trackLibrary.use(track);
             setVisible(false);
             new TrackerApp(track, this);
         }
@@ -51,10 +51,14 @@ public class NewMenu extends JPanel {
     }
 
     // MODIFIES: this
-    // EFFECTS: creates and opens a new track with the user-entered name
+    // EFFECTS: creates and opens a new track with the user-entered name,
+    //          or displays an error message if a track with that name already exists
     private void createNewTrack() {
         String name = textField.getText();
-        if (!name.equals("")) {
+        if (mainMenu.getTracker().hasTrackNamed(name)) {
+            JOptionPane.showMessageDialog(this, "A track with that name already exists.", "New Track",
+                    JOptionPane.PLAIN_MESSAGE, null);
+        } else if (!name.equals("")) {
             resetTextField();
             mainMenu.getTracker().addTrack(name);
             mainMenu.openTrack(name);
@@ -0,0 +1,147 @@
+package ui.sound;
+
+import javax.sound.sampled.*;
+
+// Represents an audio engine that plays the output of a channel mixer to the user through a single audio output
+// line, the mix is rendered on a dedicated thread
+// The line's buffer is made of numPeriods periods of periodFrames frames each: a smaller buffer lowers the latency
+// between a note being triggered and it being heard, a larger one makes underruns less likely when the machine is
+// busy. While the engine runs it measures the latency as the number of frames written to the line that have not
+// been played yet, according to the line's frame position
+public class AudioEngine {
+    public static final int DEFAULT_PERIOD_FRAMES = 512;
+    public static final int DEFAULT_NUM_PERIODS = 4;
+    public static final int MIN_PERIOD_FRAMES = 64;
+    public static final int MAX_PERIOD_FRAMES = 4096;
+    public static final int MIN_NUM_PERIODS = 2;
+    public static final int MAX_NUM_PERIODS = 8;
+    public static final double NOT_MEASURED = -1;
+    private static final int BYTES_PER_FRAME = ChannelMixer.BYTES_PER_FRAME;
+    private static final AudioFormat FORMAT = ChannelMixer.FORMAT;
+
+    private static volatile int periodFrames = DEFAULT_PERIOD_FRAMES;
+    private static volatile int numPeriods = DEFAULT_NUM_PERIODS;
+
+    private final ChannelMixer mixer;
+
+    private volatile boolean running;
+    private Thread renderThread;
+    private volatile int lineBufferFrames;
+    private volatile long latencyFrames;
+
+    // EFFECTS: constructs an audio engine with a silent mixer, the output line is not opened until started
+    public AudioEngine() {
+        mixer = new ChannelMixer();
+    }
+
+    public ChannelMixer getMixer() {
+        return mixer;
+    }
+
+    public static int getPeriodFrames() {
+        return periodFrames;
+    }
+
+    public static int getNumPeriods() {
+        return numPeriods;
+    }
+
+    // REQUIRES: MIN_PERIOD_FRAMES <= periodFrames <= MAX_PERIOD_FRAMES,
+    //           MIN_NUM_PERIODS <= numPeriods <= MAX_NUM_PERIODS
+    // MODIFIES: AudioEngine
+    // EFFECTS: sets the buffer size used by every engine the next time it opens its output line
+    public static void setBufferSize(int periodFrames, int numPeriods) {
+        AudioEngine.periodFrames = periodFrames;
+        AudioEngine.numPeriods = numPeriods;
+    }
+
+    // EFFECTS: returns the given number of frames in milliseconds
+    public static double framesToMillis(long numFrames) {
+        return numFrames * 1000.0 / ChannelMixer.SAMPLE_RATE;
+    }
+
+    // EFFECTS: returns true if the output line is open and the render loop is running
+    public boolean isRunning() {
+        return running;
+    }
+
+    // EFFECTS: returns the size of the open output line's buffer in milliseconds, which can differ from the
+    //          requested size, or NOT_MEASURED if the engine is not running
+    public double getBufferMillis() {
+        return running ? framesToMillis(lineBufferFrames) : NOT_MEASURED;
+    }
+
+    // EFFECTS: returns the most recently measured delay in milliseconds between a block being written to the line
+    //          and it being played, or NOT_MEASURED if the engine is not running
+    public double getLatencyMillis() {
+        return running ? framesToMillis(latencyFrames) : NOT_MEASURED;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the output line with the current buffer size and starts the render loop if the engine is not
+    //          already running
+    public void start() {
+        if (running) {
+            return;
+        }
+        int curPeriodFrames = periodFrames;
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, curPeriodFrames * BYTES_PER_FRAME * numPeriods);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return;
+        }
+        lineBufferFrames = line.getBufferSize() / BYTES_PER_FRAME;
+        latencyFrames = 0;
+        line.start();
+        running = true;
+        renderThread = new Thread(() -> renderLoop(line, curPeriodFrames), "Audio Engine");
+        renderThread.setDaemon(true);
+        renderThread.setPriority(Thread.MAX_PRIORITY);
+        renderThread.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the engine is running, reopens the output line so that it uses the current buffer size
+    public void restart() {
+        if (running) {
+            close();
+            start();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the render loop and waits for it to close the output line once the current period is written
+    public void close() {
+        running = false;
+        if (renderThread != null) {
+            try {
+                renderThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            renderThread = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: renders and writes periods of mixed audio to the line and measures the latency after every write
+    //          until the engine is closed, then closes the line
+    private void renderLoop(SourceDataLine line, int blockFrames) {
+        byte[] buffer = new byte[blockFrames * BYTES_PER_FRAME];
+        long framesWritten = 0;
+        try {
+            while (running) {
+                mixer.render(buffer, blockFrames);
+                line.write(buffer, 0, buffer.length);
+                framesWritten += blockFrames;
+                latencyFrames = framesWritten - line.getLongFramePosition();
+            }
+        } finally {
+            line.stop();
+            line.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ui.sound;
+
+import model.Channel;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Arrays;
+
+// Represents a software mixer that renders the pulse 1, pulse 2, triangle, and noise channels into one stream
+// of 16-bit mono samples, the mixer does no I/O so it can feed an output line or a file
+public class ChannelMixer {
+    public static final int SAMPLE_RATE = 48000;
+    public static final int BYTES_PER_FRAME = 2;
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+    private static final int MIX_GAIN = 128;
+    private static final int NO_PITCH = 0;
+
+    private final Voice[] voices;
+
+    private volatile Sequencer sequencer;
+    private int[] mixBuffer;
+
+    // EFFECTS: constructs a silent mixer with one voice per channel, indexed by channel ordinal
+    public ChannelMixer() {
+        voices = new Voice[] {
+                new Voice(new PulseOscillator(25)),
+                new Voice(new PulseOscillator(50)),
+                new Voice(new TriangleOscillator()),
+                new Voice(new NoiseOscillator())
+        };
+        mixBuffer = new int[0];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the sequencer that is clocked by the rendered frames, or stops sequencing if sequencer is null
+    public void setSequencer(Sequencer sequencer) {
+        this.sequencer = sequencer;
+    }
+
+    // REQUIRES: 1 <= pitch <= Event.MAX_PITCH
+    // MODIFIES: this
+    // EFFECTS: starts playing a note with the given pitch in the given channel, replacing any note already playing
+    public void noteOn(Channel channel, int pitch) {
+        voices[channel.ordinal()].trigger(pitch);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the note playing in the given channel, if any
+    public void noteOff(Channel channel) {
+        voices[channel.ordinal()].trigger(NO_PITCH);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the notes playing in all channels
+    public void allNotesOff() {
+        for (Voice voice : voices) {
+            voice.trigger(NO_PITCH);
+        }
+    }
+
+    // REQUIRES: buffer.length >= numFrames * BYTES_PER_FRAME
+    // MODIFIES: this, buffer
+    // EFFECTS: renders numFrames frames into buffer, splitting the block at row boundaries so that the sequencer's
+    //          notes start on the exact frame of their row
+    public void render(byte[] buffer, int numFrames) {
+        if (mixBuffer.length < numFrames) {
+            mixBuffer = new int[numFrames];
+        }
+        int offset = 0;
+        while (offset < numFrames) {
+            Sequencer curSequencer = sequencer;
+            int segmentFrames = numFrames - offset;
+            if (curSequencer != null) {
+                curSequencer.startRowIfDue();
+                segmentFrames = Math.min(segmentFrames, curSequencer.framesUntilNextRow());
+                curSequencer.advance(segmentFrames);
+            }
+            mix(buffer, offset, segmentFrames);
+            offset += segmentFrames;
+        }
+    }
+
+    // MODIFIES: this, buffer
+    // EFFECTS: mixes numFrames frames of all channels into buffer starting at frame offset,
+    //          as 16-bit little-endian samples
+    private void mix(byte[] buffer, int offset, int numFrames) {
+        Arrays.fill(mixBuffer, offset, offset + numFrames, 0);
+        for (Voice voice : voices) {
+            voice.update();
+            voice.oscillator.fill(mixBuffer, offset, numFrames);
+        }
+        for (int i = offset; i < offset + numFrames; i++) {
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[i] * MIX_GAIN));
+            buffer[i * BYTES_PER_FRAME] = (byte) sample;
+            buffer[i * BYTES_PER_FRAME + 1] = (byte) (sample >> 8);
+        }
+    }
+
+    // Represents the playback state of a single channel
+    // Notes can be triggered from any thread and are picked up by the render thread at the start of the next segment,
+    // only the render thread touches the oscillator
+    private static class Voice {
+        private final Oscillator oscillator;
+
+        private volatile int nextPitch;
+        private volatile int numTriggers;
+
+        private int numTriggersPlayed;
+
+        // EFFECTS: constructs a silent voice that plays its notes with the given oscillator
+        Voice(Oscillator oscillator) {
+            this.oscillator = oscillator;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: schedules a note at the given pitch to start from the beginning of its cycle,
+        //          or silence if pitch is NO_PITCH
+        synchronized void trigger(int pitch) {
+            nextPitch = pitch;
+            numTriggers++;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: starts or stops the oscillator for the most recently triggered note if it has not been played yet
+        void update() {
+            int triggers = numTriggers;
+            if (triggers != numTriggersPlayed) {
+                numTriggersPlayed = triggers;
+                int pitch = nextPitch;
+                if (pitch == NO_PITCH) {
+                    oscillator.stop();
+                } else {
+                    oscillator.start(pitch);
+                }
+            }
+        }
+    }
+}
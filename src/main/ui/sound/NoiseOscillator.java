@@ -2,43 +2,66 @@ package ui.sound;
 
 import model.Event;
 
-import javax.sound.sampled.*;
-import java.io.File;
-import java.io.IOException;
-
 // Represents an oscillator that produces a noise sound
+// The noise is generated in memory by a 15-bit linear feedback shift register, like the long mode of the noise
+// channel of the NES: the register repeats every 32767 steps and sounds like white noise. The register is clocked
+// faster for higher pitches.
 public class NoiseOscillator extends Oscillator {
-    private static final String FILE_PATH = "./data/noise.wav";
+    private static final byte AMPLITUDE = 25;
+    private static final int TAP = 1;
+    private static final int REGISTER_BITS = 15;
+    private static final double[] CLOCK_RATES = generateClockRates();
+
+    private int shiftRegister;
+
+    // EFFECTS: constructs a noise oscillator
+    public NoiseOscillator() {
+        shiftRegister = 1;
+    }
 
     // MODIFIES: this
-    // EFFECTS: see super
+    // EFFECTS: see super, the shift register starts from the same state for every note
     @Override
-    protected void loadWaveform(int pitch) throws LineUnavailableException {
-        File audioFile = new File(FILE_PATH);
-        AudioInputStream inStream;
-        try {
-            inStream = AudioSystem.getAudioInputStream(audioFile);
-        } catch (UnsupportedAudioFileException | IOException e) {
-            e.printStackTrace();
-            return;
-        }
-        float sampleRate = getSampleRate(pitch);
-        AudioFormat format = new AudioFormat(sampleRate, 8, 1, true, false);
-        AudioInputStream outStream = AudioSystem.getAudioInputStream(format, inStream);
-
-        try {
-            clip.open(outStream);
-        } catch (IOException e) {
-            e.printStackTrace();
+    public void start(int pitch) {
+        super.start(pitch);
+        shiftRegister = 1;
+    }
+
+    // MODIFIES: this, buffer
+    // EFFECTS: see super, the shift register is clocked every time the phase completes a cycle
+    @Override
+    protected void fillWaveform(int[] buffer, int offset, int numSamples) {
+        for (int i = offset; i < offset + numSamples; i++) {
+            phase += phaseIncrement;
+            while (phase >= 1) {
+                shiftRegister = clock(shiftRegister);
+                phase--;
+            }
+            buffer[i] += (shiftRegister & 1) == 0 ? AMPLITUDE : -AMPLITUDE;
         }
     }
 
-    // EFFECTS: returns the sample rate for noise depending on the given pitch
-    private static float getSampleRate(int pitch) {
-        int basePitch = Event.MAX_PITCH - 13;
-        double baseFrequency = getFrequency(basePitch);
-        double frequency = getFrequency(pitch);
-        double multiplier = Math.pow(frequency / baseFrequency, 1.8);
-        return (float) (SAMPLE_RATE * multiplier);
+    // EFFECTS: see super, the phase completes one cycle every time the shift register is clocked
+    @Override
+    protected double getPhaseIncrement(int pitch) {
+        return CLOCK_RATES[pitch] / SAMPLE_RATE;
+    }
+
+    // EFFECTS: returns the state of the shift register after one step
+    private static int clock(int shiftRegister) {
+        int feedback = (shiftRegister ^ (shiftRegister >> TAP)) & 1;
+        return (shiftRegister >> 1) | (feedback << (REGISTER_BITS - 1));
+    }
+
+    // EFFECTS: generates an array of the rates in Hz at which the shift register is clocked for every pitch,
+    //          indexed by pitch
+    private static double[] generateClockRates() {
+        double[] clockRates = new double[Event.MAX_PITCH + 1];
+        double baseFrequency = getFrequency(Event.MAX_PITCH - 13);
+        for (int pitch = 1; pitch <= Event.MAX_PITCH; pitch++) {
+            double multiplier = Math.pow(getFrequency(pitch) / baseFrequency, 1.8);
+            clockRates[pitch] = SAMPLE_RATE * multiplier;
+        }
+        return clockRates;
     }
 }
@@ -0,0 +1,100 @@
+package ui.sound;
+
+import model.Track;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Represents a renderer that bounces a track to a WAV file as fast as the CPU allows
+// The track is played by the same track sequencer and channel mixer as live playback, but the mixed samples are
+// streamed straight into the file instead of an output line
+public class OfflineRenderer {
+    private static final int BLOCK_FRAMES = 4096;
+    private static final AudioFormat FORMAT = ChannelMixer.FORMAT;
+
+    private OfflineRenderer() {
+    }
+
+    // EFFECTS: renders track from its first row to its end into a 16-bit mono WAV file at destination,
+    //          returns the real-time factor of the render (seconds of audio rendered per second of elapsed time);
+    //          throws IOException if the file cannot be written
+    public static double render(Track track, File destination) throws IOException {
+        long startNanos = System.nanoTime();
+        ChannelMixer mixer = new ChannelMixer();
+        mixer.setSequencer(new TrackSequencer(new PlaybackSchedule(track), mixer, 1));
+        long numFrames = getLengthInFrames(track);
+
+        try (AudioInputStream stream = new AudioInputStream(new RenderStream(mixer, numFrames), FORMAT, numFrames)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, destination);
+        }
+
+        double elapsedSeconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+        return getDurationSeconds(track) / elapsedSeconds;
+    }
+
+    // EFFECTS: returns the duration of the track in seconds when played from its first row to its end
+    public static double getDurationSeconds(Track track) {
+        return (double) getLengthInFrames(track) / ChannelMixer.SAMPLE_RATE;
+    }
+
+    // EFFECTS: returns the number of frames in the track when played from its first row to its end
+    private static long getLengthInFrames(Track track) {
+        return Sequencer.framesForRows(track.numberOfRows(), track.getTempo());
+    }
+
+    // An input stream that renders blocks of the mix on demand until the given number of frames has been read
+    private static class RenderStream extends InputStream {
+        private final ChannelMixer mixer;
+        private final byte[] block;
+        private long framesLeft;
+        private int blockPos;
+        private int blockLength;
+
+        // EFFECTS: constructs a stream of numFrames frames rendered by mixer
+        RenderStream(ChannelMixer mixer, long numFrames) {
+            this.mixer = mixer;
+            block = new byte[BLOCK_FRAMES * ChannelMixer.BYTES_PER_FRAME];
+            framesLeft = numFrames;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: see super
+        @Override
+        public int read() {
+            byte[] oneByte = new byte[1];
+            return read(oneByte, 0, 1) == -1 ? -1 : oneByte[0] & 0xFF;
+        }
+
+        // MODIFIES: this, buffer
+        // EFFECTS: see super
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (blockPos == blockLength && !renderBlock()) {
+                return -1;
+            }
+            int numBytes = Math.min(length, blockLength - blockPos);
+            System.arraycopy(block, blockPos, buffer, offset, numBytes);
+            blockPos += numBytes;
+            return numBytes;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: renders the next block of the mix and returns true, or returns false if no frames are left
+        private boolean renderBlock() {
+            if (framesLeft == 0) {
+                return false;
+            }
+            int numFrames = (int) Math.min(BLOCK_FRAMES, framesLeft);
+            mixer.render(block, numFrames);
+            framesLeft -= numFrames;
+            blockPos = 0;
+            blockLength = numFrames * ChannelMixer.BYTES_PER_FRAME;
+            return true;
+        }
+    }
+}
@@ -1,80 +1,77 @@
 package ui.sound;
 
-import javax.sound.sampled.*;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import model.Event;
 
-// Represents an oscillator that can play notes to the user at a given pitch
+// Represents a streaming oscillator that generates a waveform at a given pitch into caller-supplied sample blocks
+// The oscillator keeps a fractional phase (the position within the current cycle, from 0 to 1) that advances by a
+// fixed increment every sample, so every pitch is exact and changing the pitch only changes the increment
 public abstract class Oscillator {
-    private static final double[] FREQUENCIES = generateFrequencies();
+    protected static final int SAMPLE_RATE = ChannelMixer.SAMPLE_RATE;
     private static final double A0_FREQUENCY = 55;
-    protected static final int SAMPLE_RATE = 48000;
-    protected static final int NUM_WAVELENGTHS = 12;
+    private static final double[] FREQUENCIES = generateFrequencies();
 
-    protected Clip clip;
+    protected double phase;
+    protected double phaseIncrement;
+    private boolean isPlaying;
 
+    // REQUIRES: 1 <= pitch <= Event.MAX_PITCH
     // MODIFIES: this
-    // EFFECTS: plays a note using this at the given pitch
-    public void play(int pitch) {
-        try {
-            stop();
-            clip = AudioSystem.getClip();
-            loadWaveform(pitch);
-            clip.loop(Clip.LOOP_CONTINUOUSLY);
-        } catch (LineUnavailableException e) {
-            e.printStackTrace();
-        }
+    // EFFECTS: starts playing the waveform from the beginning of its cycle at the given pitch
+    public void start(int pitch) {
+        phase = 0;
+        setPitch(pitch);
+        isPlaying = true;
     }
 
+    // REQUIRES: 1 <= pitch <= Event.MAX_PITCH
     // MODIFIES: this
-    // EFFECTS: if the oscillator is playing a note, stops playing the note
-    public void stop() {
-        if (clip != null) {
-            clip.stop();
-        }
+    // EFFECTS: changes the pitch of the waveform without restarting its cycle
+    public void setPitch(int pitch) {
+        phaseIncrement = getPhaseIncrement(pitch);
     }
 
     // MODIFIES: this
-    // EFFECTS: loads the oscillator's waveform for the given pitch
-    protected void loadWaveform(int pitch) throws LineUnavailableException {
-        double frequency = getFrequency(pitch);
-        double period = 1 / frequency;
-        int bufferSize = (int) Math.round(period * NUM_WAVELENGTHS * SAMPLE_RATE);
-        byte[] buffer = new byte[bufferSize];
-
-        for (int i = 0; i < bufferSize; i++) {
-            buffer[i] = getSample(i, period * SAMPLE_RATE);
-        }
+    // EFFECTS: stops playing the waveform
+    public void stop() {
+        isPlaying = false;
+    }
 
-        AudioFormat audioFormat = new AudioFormat(SAMPLE_RATE, 8, 1, true, false);
-        AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(buffer), audioFormat, bufferSize);
+    public boolean isPlaying() {
+        return isPlaying;
+    }
 
-        try {
-            clip.open(stream);
-        } catch (IOException e) {
-            e.printStackTrace();
+    // REQUIRES: buffer.length >= offset + numSamples
+    // MODIFIES: this, buffer
+    // EFFECTS: if the oscillator is playing, adds numSamples samples of its waveform to buffer starting at offset
+    //          and advances the phase, otherwise does nothing
+    public void fill(int[] buffer, int offset, int numSamples) {
+        if (isPlaying) {
+            fillWaveform(buffer, offset, numSamples);
         }
     }
 
-    // EFFECTS: returns the sample at the given position along the waveform for the given wavelength depending on the
-    //          oscillator type
-    protected byte getSample(int pos, double wavelength) {
-        return 0;
+    // MODIFIES: this, buffer
+    // EFFECTS: adds numSamples samples of the waveform to buffer starting at offset and advances the phase
+    protected abstract void fillWaveform(int[] buffer, int offset, int numSamples);
+
+    // REQUIRES: 1 <= pitch <= Event.MAX_PITCH
+    // EFFECTS: returns the fraction of a cycle that the phase advances every sample at the given pitch
+    protected double getPhaseIncrement(int pitch) {
+        return FREQUENCIES[pitch] / SAMPLE_RATE;
     }
 
+    // REQUIRES: 1 <= pitch <= Event.MAX_PITCH
     // EFFECTS: returns the frequency in Hz corresponding to the given pitch
     protected static double getFrequency(int pitch) {
-        int relPitch = (pitch - 1) % 12;
-        int octave = (pitch - 1) / 12;
-        return FREQUENCIES[relPitch] * Math.pow(2, octave);
+        return FREQUENCIES[pitch];
     }
 
-    // EFFECTS: generates an array of the frequencies of the notes from C1-B1
+    // EFFECTS: generates an array of the frequencies of every pitch, indexed by pitch, starting at C1
     private static double[] generateFrequencies() {
-        double[] frequencies = new double[12];
-        for (int i = 0; i <= 11; i++) {
-            double n = i + 3;
-            frequencies[i] = (A0_FREQUENCY * Math.pow(2, n / 12));
+        double[] frequencies = new double[Event.MAX_PITCH + 1];
+        for (int pitch = 1; pitch <= Event.MAX_PITCH; pitch++) {
+            double n = pitch + 2;
+            frequencies[pitch] = A0_FREQUENCY * Math.pow(2, n / 12);
         }
         return frequencies;
     }
@@ -0,0 +1,163 @@
+package ui.sound;
+
+import model.Channel;
+import model.Event;
+import model.InstrumentChannel;
+import model.Track;
+
+import java.util.Arrays;
+
+// Represents a track compiled into flat arrays of commands that a sequencer can play without looking at events
+// Each channel has one command per row: a pitch to start a note at, NOTE_OFF to silence the channel, or HOLD to
+// leave it alone. Staccato is resolved at compile time into a NOTE_OFF on the row after the note, so the command
+// for a row only depends on the events at that row and the row before it, and an edit only recompiles those rows.
+// The schedule is compiled on the thread that edits the track and read by the audio thread through immutable
+// snapshots: an edit builds a new snapshot that shares every bar it did not touch with the previous one and
+// publishes it in a single write, so the audio thread never sees a half-applied edit and never takes a lock
+// A full rebuild only visits the rows that hold events and skips the blank runs between them, and every bar that only
+// holds shares one array of HOLD commands
+public class PlaybackSchedule {
+    public static final int HOLD = 0;
+    public static final int NOTE_OFF = -1;
+    private static final int ROWS_PER_BAR = InstrumentChannel.ROWS_PER_BAR;
+    private static final int[] HOLD_BAR = new int[ROWS_PER_BAR];
+
+    private final Track track;
+    private volatile Snapshot snapshot;
+
+    // EFFECTS: constructs a schedule compiled from every row of track
+    public PlaybackSchedule(Track track) {
+        this.track = track;
+        rebuild();
+    }
+
+    // EFFECTS: returns the most recently compiled snapshot of the track
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: recompiles every row of the track, used after edits that change the number of rows or touch most of
+    //          the track
+    public void rebuild() {
+        int numBars = track.numberOfBars();
+        int[][][] bars = new int[Channel.NUM_CHANNELS][numBars][];
+        for (Channel channel : Channel.values()) {
+            Arrays.fill(bars[channel.ordinal()], HOLD_BAR);
+            compileEvents(bars[channel.ordinal()], channel);
+        }
+        snapshot = new Snapshot(track.getTempo(), bars);
+    }
+
+    // REQUIRES: 1 <= startRow <= endRow
+    // MODIFIES: this
+    // EFFECTS: recompiles the rows from startRow to endRow (inclusive) and the row after them in every channel,
+    //          or the whole track if its number of rows has changed
+    public void update(int startRow, int endRow) {
+        Snapshot curSnapshot = snapshot;
+        int numRows = track.numberOfRows();
+        if (curSnapshot.numberOfRows() != numRows) {
+            rebuild();
+            return;
+        }
+        int lastRow = Math.min(endRow + 1, numRows);
+        int[][][] bars = new int[Channel.NUM_CHANNELS][][];
+        for (Channel channel : Channel.values()) {
+            bars[channel.ordinal()] = copyBars(curSnapshot.bars[channel.ordinal()], startRow, lastRow);
+            compileRows(bars[channel.ordinal()], channel, startRow, lastRow);
+        }
+        snapshot = new Snapshot(track.getTempo(), bars);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: picks up a change to the tempo of the track, sharing every bar with the previous snapshot
+    public void tempoChanged() {
+        snapshot = new Snapshot(track.getTempo(), snapshot.bars);
+    }
+
+    // EFFECTS: returns a copy of the bars of a channel in which the bars containing the rows from startRow to
+    //          endRow (inclusive) are copied and every other bar is shared
+    private static int[][] copyBars(int[][] channelBars, int startRow, int endRow) {
+        int[][] newBars = channelBars.clone();
+        for (int bar = (startRow - 1) / ROWS_PER_BAR; bar <= (endRow - 1) / ROWS_PER_BAR; bar++) {
+            newBars[bar] = channelBars[bar].clone();
+        }
+        return newBars;
+    }
+
+    // REQUIRES: every bar of channelBars is HOLD_BAR
+    // MODIFIES: channelBars
+    // EFFECTS: compiles the rows of the given channel that hold events, and the blank rows after staccato notes, into
+    //          channelBars, leaving every other row as HOLD
+    private void compileEvents(int[][] channelBars, Channel channel) {
+        int numRows = track.numberOfRows();
+        for (int row = track.nextEventRow(channel, 1); row <= numRows; row = track.nextEventRow(channel, row + 1)) {
+            Event event = track.getEvent(channel, row);
+            setCommand(channelBars, row, compile(event, null));
+            if (event.getIsStaccato() && row < numRows && track.getEvent(channel, row + 1) == Event.BLANK) {
+                setCommand(channelBars, row + 1, NOTE_OFF);
+            }
+        }
+    }
+
+    // MODIFIES: channelBars
+    // EFFECTS: sets the command at the given row, giving its bar its own array first if it shares HOLD_BAR
+    private static void setCommand(int[][] channelBars, int row, int command) {
+        int bar = (row - 1) / ROWS_PER_BAR;
+        if (channelBars[bar] == HOLD_BAR) {
+            channelBars[bar] = new int[ROWS_PER_BAR];
+        }
+        channelBars[bar][(row - 1) % ROWS_PER_BAR] = command;
+    }
+
+    // MODIFIES: channelBars
+    // EFFECTS: compiles the rows from startRow to endRow (inclusive) of the given channel into channelBars
+    private void compileRows(int[][] channelBars, Channel channel, int startRow, int endRow) {
+        Event prevEvent = startRow > 1 ? track.getEvent(channel, startRow - 1) : null;
+        for (int row = startRow; row <= endRow; row++) {
+            Event event = track.getEvent(channel, row);
+            channelBars[(row - 1) / ROWS_PER_BAR][(row - 1) % ROWS_PER_BAR] = compile(event, prevEvent);
+            prevEvent = event;
+        }
+    }
+
+    // EFFECTS: returns the command that plays event, given the event in the row before it (null on the first row)
+    private static int compile(Event event, Event prevEvent) {
+        if (event.isNote()) {
+            return event.getPitch();
+        } else if (event == Event.REST) {
+            return NOTE_OFF;
+        }
+        boolean prevWasStaccato = prevEvent != null && prevEvent.getIsStaccato();
+        return prevWasStaccato ? NOTE_OFF : HOLD;
+    }
+
+    // Represents an immutable compiled view of the track at one point in time
+    // The commands are split into one array per bar so that snapshots can share the bars that did not change
+    public static final class Snapshot {
+        private final int tempo;
+        private final int[][][] bars;
+
+        // EFFECTS: constructs a snapshot with the given tempo and commands, indexed by channel ordinal, bar,
+        //          and row within the bar
+        private Snapshot(int tempo, int[][][] bars) {
+            this.tempo = tempo;
+            this.bars = bars;
+        }
+
+        public int getTempo() {
+            return tempo;
+        }
+
+        // EFFECTS: returns the number of rows in the snapshot
+        public int numberOfRows() {
+            return bars[0].length * ROWS_PER_BAR;
+        }
+
+        // REQUIRES: 0 <= channel < Channel.NUM_CHANNELS, 1 <= row <= numberOfRows()
+        // EFFECTS: returns the command at the given row of the channel with the given ordinal
+        public int getCommand(int channel, int row) {
+            return bars[channel][(row - 1) / ROWS_PER_BAR][(row - 1) % ROWS_PER_BAR];
+        }
+    }
+}
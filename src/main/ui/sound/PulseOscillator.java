@@ -3,20 +3,23 @@ package ui.sound;
 // Represents an oscillator that produces a pulse wave
 public class PulseOscillator extends Oscillator {
     private static final byte AMPLITUDE = 20;
-    private final int pulseWidth;
+    private final double dutyCycle;
 
-    // EFFECTS: constructs the pulse oscillator with the given pulseWidth
+    // EFFECTS: constructs the pulse oscillator with the given pulseWidth (in percent of a cycle)
     public PulseOscillator(int pulseWidth) {
-        this.pulseWidth = pulseWidth;
+        dutyCycle = pulseWidth / 100.0;
     }
 
+    // MODIFIES: this, buffer
     // EFFECTS: see super
     @Override
-    protected byte getSample(int pos, double wavelength) {
-        if (pos % wavelength < wavelength * (pulseWidth / 100.0)) {
-            return AMPLITUDE;
-        } else {
-            return -AMPLITUDE;
+    protected void fillWaveform(int[] buffer, int offset, int numSamples) {
+        for (int i = offset; i < offset + numSamples; i++) {
+            buffer[i] += phase < dutyCycle ? AMPLITUDE : -AMPLITUDE;
+            phase += phaseIncrement;
+            if (phase >= 1) {
+                phase--;
+            }
         }
     }
 }
@@ -0,0 +1,79 @@
+package ui.sound;
+
+// Represents a sequencer that is clocked by the frames rendered by the audio engine
+// Every row starts on the frame closest to its exact position on the beat grid, so rows land on exact sample
+// positions at any tempo and the rounding never accumulates into drift
+public abstract class Sequencer {
+    public static final int ROWS_PER_BEAT = 4;
+    private static final long FRAMES_PER_ROW_TIMES_BPM = 60L * ChannelMixer.SAMPLE_RATE / ROWS_PER_BEAT;
+
+    private final TimingStats timingStats;
+
+    private long framePosition;
+    private long nextRowFrame;
+    private double nextRowExactFrame;
+    private long tempoStartFrame;
+    private long rowsSinceTempoStart;
+    private int tempo;
+
+    // EFFECTS: constructs a sequencer whose first row starts at the first frame it is clocked for
+    public Sequencer() {
+        timingStats = new TimingStats();
+    }
+
+    // EFFECTS: returns the tempo in BPM that the next row is played at
+    protected abstract int getTempo();
+
+    // MODIFIES: this
+    // EFFECTS: plays the next row, called by the audio engine exactly at the row's first frame
+    protected abstract void playRow();
+
+    public TimingStats getTimingStats() {
+        return timingStats;
+    }
+
+    // REQUIRES: numRows >= 0, tempo > 0
+    // EFFECTS: returns the number of frames that numRows rows last at the given tempo, rounded to the nearest frame
+    public static long framesForRows(long numRows, int tempo) {
+        return (2 * numRows * FRAMES_PER_ROW_TIMES_BPM + tempo) / (2L * tempo);
+    }
+
+    // EFFECTS: returns the number of frames that can be rendered before the next row starts
+    int framesUntilNextRow() {
+        return (int) Math.min(Integer.MAX_VALUE, nextRowFrame - framePosition);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: plays the next row and schedules the row after it if the next row starts at the current frame
+    void startRowIfDue() {
+        if (framePosition < nextRowFrame) {
+            return;
+        }
+        double prevRowFrames = tempo == 0 ? 0 : (double) FRAMES_PER_ROW_TIMES_BPM / tempo;
+        timingStats.recordRow(framePosition, nextRowExactFrame, prevRowFrames);
+        playRow();
+        scheduleNextRow();
+    }
+
+    // REQUIRES: numFrames <= framesUntilNextRow()
+    // MODIFIES: this
+    // EFFECTS: advances the clock by the given number of rendered frames
+    void advance(int numFrames) {
+        framePosition += numFrames;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: computes the start frame of the next row, counting from the last tempo change so that a tempo
+    //          change takes effect at the current row boundary
+    private void scheduleNextRow() {
+        int newTempo = getTempo();
+        if (newTempo != tempo) {
+            tempo = newTempo;
+            tempoStartFrame = framePosition;
+            rowsSinceTempoStart = 0;
+        }
+        rowsSinceTempoStart++;
+        nextRowFrame = tempoStartFrame + framesForRows(rowsSinceTempoStart, tempo);
+        nextRowExactFrame = tempoStartFrame + (double) rowsSinceTempoStart * FRAMES_PER_ROW_TIMES_BPM / tempo;
+    }
+}
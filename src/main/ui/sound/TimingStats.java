@@ -0,0 +1,78 @@
+package ui.sound;
+
+// Represents the timing statistics measured by a sequencer while it plays rows, measured on the sample clock
+// Row offset is how far a row's start frame is from its exact position on the beat grid,
+// drift is how far a row's start frame has wandered from the sum of the nominal lengths of the rows before it,
+// and jitter is the standard deviation of the row lengths in frames from their nominal lengths
+public class TimingStats {
+    private int numRows;
+    private double maxRowOffsetFrames;
+    private long startFrame;
+    private long prevFrame;
+    private double idealFrames;
+    private double driftFrames;
+    private double maxDriftFrames;
+    private double meanDeviationFrames;
+    private double sumSquaredDeviationFrames;
+
+    // MODIFIES: this
+    // EFFECTS: records a row that started at the given frame, whose exact position on the beat grid is exactFrame,
+    //          and whose previous row was nominally prevRowFrames long
+    public synchronized void recordRow(long frame, double exactFrame, double prevRowFrames) {
+        maxRowOffsetFrames = Math.max(maxRowOffsetFrames, Math.abs(frame - exactFrame));
+        if (numRows == 0) {
+            startFrame = frame;
+        } else {
+            idealFrames += prevRowFrames;
+            driftFrames = (frame - startFrame) - idealFrames;
+            maxDriftFrames = Math.max(maxDriftFrames, Math.abs(driftFrames));
+            recordDeviation((frame - prevFrame) - prevRowFrames);
+        }
+        prevFrame = frame;
+        numRows++;
+    }
+
+    public synchronized int getNumRows() {
+        return numRows;
+    }
+
+    // EFFECTS: returns the largest distance in frames between a row's start and its exact position on the beat grid
+    public synchronized double getMaxRowOffsetFrames() {
+        return maxRowOffsetFrames;
+    }
+
+    // EFFECTS: returns the drift of the most recent row in frames
+    public synchronized double getDriftFrames() {
+        return driftFrames;
+    }
+
+    // EFFECTS: returns the largest drift of any row in frames
+    public synchronized double getMaxDriftFrames() {
+        return maxDriftFrames;
+    }
+
+    // EFFECTS: returns the standard deviation of the row lengths from their nominal lengths in frames
+    public synchronized double getJitterFrames() {
+        int numIntervals = numRows - 1;
+        if (numIntervals < 2) {
+            return 0;
+        }
+        return Math.sqrt(sumSquaredDeviationFrames / (numIntervals - 1));
+    }
+
+    // EFFECTS: returns a one-line summary of the statistics
+    @Override
+    public synchronized String toString() {
+        return String.format("%d rows, max offset %.2f, max drift %.2f, jitter %.2f frames",
+                numRows, getMaxRowOffsetFrames(), getMaxDriftFrames(), getJitterFrames());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the given row length deviation to the running variance (Welford's algorithm)
+    private void recordDeviation(double deviationFrames) {
+        int numIntervals = numRows;
+        double delta = deviationFrames - meanDeviationFrames;
+        meanDeviationFrames += delta / numIntervals;
+        sumSquaredDeviationFrames += delta * (deviationFrames - meanDeviationFrames);
+    }
+}
@@ -1,67 +1,65 @@
 package ui.sound;
 
-import model.Event;
-import model.Track;
-import ui.tracker.ToolBar;
 import ui.tracker.TrackEditor;
 import ui.tracker.TrackerApp;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // Represents a track player that plays the current track open in the tracker app
+// The audio thread never touches Swing: it publishes the row being played to a single slot that the track editor
+// picks up on the event dispatch thread, so a slow repaint can never delay a note
 public class TrackPlayer {
-    private final TrackEditor trackEditor;
-    private final ToolBar toolBar;
-
-    private final Track track;
-    private Timer timer;
+    public static final int NO_ROW = 0;
+    public static final int END_OF_TRACK = -1;
 
-    private int curRow;
+    private final TrackEditor trackEditor;
 
-    private boolean pulse1PrevWasStaccato;
-    private boolean pulse2PrevWasStaccato;
-    private boolean trianglePrevWasStaccato;
-    private boolean noisePrevWasStaccato;
+    private final PlaybackSchedule schedule;
+    private Sequencer sequencer;
+    private TimingStats timingStats;
+    private final AtomicInteger playheadRow;
 
-    private final Oscillator pulse1Oscillator;
-    private final Oscillator pulse2Oscillator;
-    private final Oscillator triangleOscillator;
-    private final Oscillator noiseOscillator;
+    private final AudioEngine audioEngine;
 
     // EFFECTS: constructs and initializes the track player
     public TrackPlayer(TrackerApp trackerApp) {
         trackEditor = trackerApp.getTrackEditor();
-        toolBar = trackerApp.getToolBar();
-        track = trackerApp.getTrack();
-        curRow = 1;
-
-        pulse1Oscillator = new PulseOscillator(25);
-        pulse2Oscillator = new PulseOscillator(50);
-        triangleOscillator = new TriangleOscillator();
-        noiseOscillator = new NoiseOscillator();
+        schedule = new PlaybackSchedule(trackerApp.getTrack());
+        playheadRow = new AtomicInteger(NO_ROW);
+        audioEngine = new AudioEngine();
+        timingStats = new TimingStats();
+    }
+
+    public AudioEngine getAudioEngine() {
+        return audioEngine;
+    }
+
+    // EFFECTS: returns the timing statistics of the track being played, or of the last time it was played
+    public TimingStats getTimingStats() {
+        return timingStats;
     }
 
     // MODIFIES: this
     // EFFECTS: plays the selected track to the user
     public void play() {
-        curRow = trackEditor.getSelectedRow() + 1;
-        timer = new Timer();
+        int startRow = trackEditor.getSelectedRow() + 1;
         trackEditor.setColumnSelectionInterval(0, 0);
-        long period = 60 * 1000 / (4 * track.getTempo());
-        timer.scheduleAtFixedRate(new PlayEventTask(), 0, period);
+        playheadRow.set(NO_ROW);
+        sequencer = new PlayerSequencer(startRow);
+        timingStats = sequencer.getTimingStats();
+        audioEngine.getMixer().setSequencer(sequencer);
+        audioEngine.start();
+        trackEditor.startFollowingPlayhead();
     }
 
     // MODIFIES: this
     // EFFECTS: pauses the selected track if it is currently being played
     public void pause() {
-        if (timer != null) {
-            timer.cancel();
-            timer.purge();
-            pulse1Oscillator.stop();
-            pulse2Oscillator.stop();
-            triangleOscillator.stop();
-            noiseOscillator.stop();
+        if (sequencer != null) {
+            sequencer = null;
+            audioEngine.getMixer().setSequencer(null);
+            audioEngine.getMixer().allNotesOff();
+            trackEditor.stopFollowingPlayhead();
         }
     }
 
@@ -69,108 +67,66 @@ public class TrackPlayer {
     // EFFECTS: stops the currently selected track if it is being played and selects the first row in the track editor
     public void stop() {
         pause();
-        curRow = 1;
         trackEditor.setRowSelectionInterval(0, 0);
     }
 
+    // REQUIRES: 1 <= startRow <= endRow <= number of rows in the track
     // MODIFIES: this
-    // EFFECTS: plays the event at the current row in the given channel to the user
-    private void playEventAtCurRow(String channel) {
-        Event event = track.getEvent(channel, curRow);
-        String type = event.getType();
-        boolean prevWasStaccato = getPrevWasStaccato(channel);
-        if (type.equals("blank") && !prevWasStaccato) {
-            return;
-        }
-        Oscillator oscillator = getChannelOscillator(channel);
-        if (type.equals("note")) {
-            oscillator.play(event.getPitch());
-            if (event.getIsStaccato()) {
-                setCurIsStaccato(channel, true);
-            } else {
-                setCurIsStaccato(channel, false);
-            }
-        } else if (type.equals("rest") || prevWasStaccato) {
-            oscillator.stop();
-            setCurIsStaccato(channel, false);
-        }
+    // EFFECTS: recompiles the playback schedule after the events between startRow and endRow (inclusive) were edited,
+    //          the change is heard the next time one of those rows is played
+    public void rowsEdited(int startRow, int endRow) {
+        schedule.update(startRow, endRow);
     }
 
-    // EFFECTS: returns true if the previous note in the given channel was staccato
-    private boolean getPrevWasStaccato(String channel) {
-        switch (channel) {
-            case "pulse1":
-                return pulse1PrevWasStaccato;
-            case "pulse2":
-                return pulse2PrevWasStaccato;
-            case "triangle":
-                return trianglePrevWasStaccato;
-            case "noise":
-                return noisePrevWasStaccato;
-            default:
-                return false;
-        }
+    // MODIFIES: this
+    // EFFECTS: recompiles the whole playback schedule after the track was edited
+    public void trackEdited() {
+        schedule.rebuild();
     }
 
     // MODIFIES: this
-    // EFFECTS: if isStaccato is true, notify the track player that the current note is staccato,
-    //          if isStaccato is false, notify the track player that the current note is not staccato
-    private void setCurIsStaccato(String channel, boolean isStaccato) {
-        switch (channel) {
-            case "pulse1":
-                pulse1PrevWasStaccato = isStaccato;
-                break;
-            case "pulse2":
-                pulse2PrevWasStaccato = isStaccato;
-                break;
-            case "triangle":
-                trianglePrevWasStaccato = isStaccato;
-                break;
-            case "noise":
-                noisePrevWasStaccato = isStaccato;
-                break;
-        }
+    // EFFECTS: picks up a change to the tempo of the track, the new tempo takes effect at the next row
+    public void tempoChanged() {
+        schedule.tempoChanged();
     }
 
-    // EFFECTS: returns the oscillator assigned to the given channel
-    private Oscillator getChannelOscillator(String channel) {
-        Oscillator oscillator = null;
-        switch (channel) {
-            case "pulse1":
-                oscillator = pulse1Oscillator;
-                break;
-            case "pulse2":
-                oscillator = pulse2Oscillator;
-                break;
-            case "triangle":
-                oscillator = triangleOscillator;
-                break;
-            case "noise":
-                oscillator = noiseOscillator;
-                break;
-        }
-        return oscillator;
+    // MODIFIES: this
+    // EFFECTS: returns the row that most recently started playing since the last call and clears it,
+    //          or END_OF_TRACK if the track has finished playing, or NO_ROW if no row has started since the last call;
+    //          rows that started in between calls are skipped
+    public int takePlayheadRow() {
+        return playheadRow.getAndSet(NO_ROW);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the track and releases the audio output line
+    public void close() {
+        pause();
+        audioEngine.close();
     }
 
-    // A timer task that plays the current events
-    private class PlayEventTask extends TimerTask {
+    // A track sequencer that publishes the rows it plays and detaches itself at the end of the track
+    private class PlayerSequencer extends TrackSequencer {
+
+        // REQUIRES: 1 <= startRow <= track.numberOfRows()
+        // EFFECTS: constructs a sequencer that plays the track starting at startRow
+        PlayerSequencer(int startRow) {
+            super(schedule, audioEngine.getMixer(), startRow);
+        }
+
+        // MODIFIES: TrackPlayer.this
+        // EFFECTS: publishes the row that has started playing
+        @Override
+        protected void rowPlayed(int row) {
+            playheadRow.set(row);
+        }
 
         // MODIFIES: TrackPlayer.this
-        // EFFECTS: plays the event at the given row in all channels and stops playback when the end of the
-        //          track is reached
+        // EFFECTS: stops sequencing and publishes that the end of the track has been reached
         @Override
-        public void run() {
-            if (curRow <= track.numberOfRows()) {
-                playEventAtCurRow("noise");
-                playEventAtCurRow("triangle");
-                playEventAtCurRow("pulse1");
-                playEventAtCurRow("pulse2");
-                trackEditor.setRowSelectionInterval(curRow - 1, curRow - 1);
-                curRow++;
-            } else {
-                stop();
-                toolBar.resetMediaButtons();
-            }
+        protected void trackFinished() {
+            audioEngine.getMixer().setSequencer(null);
+            playheadRow.set(END_OF_TRACK);
         }
     }
 }
@@ -0,0 +1,75 @@
+package ui.sound;
+
+import model.Channel;
+
+// Represents a sequencer that plays the rows of a compiled track in order on a channel mixer
+// A note keeps playing until the next note or rest in its channel, or until the next row if it is staccato
+// Every row is played from the latest snapshot of the schedule, so edits and tempo changes are picked up at the next
+// row boundary
+public class TrackSequencer extends Sequencer {
+    private final PlaybackSchedule schedule;
+    private final ChannelMixer mixer;
+
+    private int curRow;
+    private boolean isFinished;
+
+    // REQUIRES: 1 <= startRow <= number of rows in the schedule
+    // EFFECTS: constructs a sequencer that plays schedule on mixer starting at startRow
+    public TrackSequencer(PlaybackSchedule schedule, ChannelMixer mixer, int startRow) {
+        this.schedule = schedule;
+        this.mixer = mixer;
+        curRow = startRow;
+    }
+
+    // EFFECTS: returns the row that will be played next
+    public int getCurRow() {
+        return curRow;
+    }
+
+    // EFFECTS: returns true if every row up to the end of the track has been played and the last row has ended
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    // EFFECTS: see super
+    @Override
+    protected int getTempo() {
+        return schedule.getSnapshot().getTempo();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: plays the commands at the current row in all channels, or finishes if the end of the track is reached
+    @Override
+    protected void playRow() {
+        PlaybackSchedule.Snapshot snapshot = schedule.getSnapshot();
+        if (curRow <= snapshot.numberOfRows()) {
+            for (int i = 0; i < Channel.NUM_CHANNELS; i++) {
+                playCommand(Channel.fromIndex(i), snapshot.getCommand(i, curRow));
+            }
+            rowPlayed(curRow);
+            curRow++;
+        } else if (!isFinished) {
+            isFinished = true;
+            mixer.allNotesOff();
+            trackFinished();
+        }
+    }
+
+    // EFFECTS: called after the given row has started playing, does nothing by default
+    protected void rowPlayed(int row) {
+    }
+
+    // EFFECTS: called once when the last row of the track has ended, does nothing by default
+    protected void trackFinished() {
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sends the given schedule command to the given channel of the mixer
+    private void playCommand(Channel channel, int command) {
+        if (command == PlaybackSchedule.NOTE_OFF) {
+            mixer.noteOff(channel);
+        } else if (command != PlaybackSchedule.HOLD) {
+            mixer.noteOn(channel, command);
+        }
+    }
+}
@@ -4,17 +4,28 @@ package ui.sound;
 public class TriangleOscillator extends Oscillator {
     private static final byte AMPLITUDE = 55;
 
-    // EFFECTS: see super
+    // MODIFIES: this, buffer
+    // EFFECTS: see super, the wave starts at 0 and rises to its peak a quarter of the way through each cycle
     @Override
-    protected byte getSample(int pos, double wavelength) {
-        double slope = 4 * AMPLITUDE / wavelength;
-        int sample = (int) Math.round(slope * (pos % wavelength));
+    protected void fillWaveform(int[] buffer, int offset, int numSamples) {
+        for (int i = offset; i < offset + numSamples; i++) {
+            buffer[i] += getSample();
+            phase += phaseIncrement;
+            if (phase >= 1) {
+                phase--;
+            }
+        }
+    }
+
+    // EFFECTS: returns the sample at the current phase
+    private int getSample() {
+        int sample = (int) Math.round(4 * AMPLITUDE * phase);
         if (sample > 3 * AMPLITUDE) {
-            return (byte) (sample - 4 * AMPLITUDE);
+            return sample - 4 * AMPLITUDE;
         } else if (sample > AMPLITUDE) {
-            return (byte) (2 * AMPLITUDE - sample);
+            return 2 * AMPLITUDE - sample;
         } else {
-            return (byte) sample;
+            return sample;
         }
     }
 }
@@ -109,6 +109,7 @@ public class ToolBar extends JPanel {
         public void stateChanged(ChangeEvent e) {
             int tempo = (int) tempoSpinner.getValue();
             trackerApp.getTrack().setTempo(tempo);
+            trackerApp.getTrackPlayer().tempoChanged();
         }
     }
 
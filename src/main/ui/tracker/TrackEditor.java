@@ -1,7 +1,8 @@
 package ui.tracker;
 
+import model.Channel;
 import model.Event;
-import model.Track;
+import ui.sound.TrackPlayer;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
@@ -20,12 +21,15 @@ public class TrackEditor extends JTable {
     private static final int COLUMN_WIDTH = 71;
     private static final int HEIGHT = 668;
     private static final Map<String, Event> STRING_TO_EVENT = makeStringToEvent();
+    private static final int PLAYHEAD_REFRESH_MILLIS = 1000 / 60;
 
     private final TrackerApp trackerApp;
+    private final Timer playheadTimer;
 
     // EFFECTS: constructs and initializes the track editor
     public TrackEditor(TrackerApp trackerApp) {
         this.trackerApp = trackerApp;
+        playheadTimer = new Timer(PLAYHEAD_REFRESH_MILLIS, e -> updatePlayhead());
         setModel(new TrackEditorTableModel());
         formatTrackEditor();
 
@@ -35,15 +39,48 @@ public class TrackEditor extends JTable {
     }
 
     // MODIFIES: this
-    // EFFECTS: notifies the track editor that the track data has been modified
+    // EFFECTS: notifies the track editor and the track player that the track data has been modified, keeping the
+    //          selected row, or selecting the last row if the track no longer has the selected row
     public void dataChanged() {
+        trackerApp.getTrackPlayer().trackEdited();
         int selectedRow = getSelectedRow();
         int selectedColumn = getSelectedColumn();
         ((AbstractTableModel) getModel()).fireTableDataChanged();
+        selectedRow = Math.max(Math.min(selectedRow, getRowCount() - 1), 0);
         setRowSelectionInterval(selectedRow, selectedRow);
         setColumnSelectionInterval(selectedColumn, selectedColumn);
     }
 
+    // MODIFIES: this
+    // EFFECTS: starts selecting the row being played by the track player at display refresh rate
+    public void startFollowingPlayhead() {
+        playheadTimer.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops following the track player and selects the last row it played, if it is still in the track
+    public void stopFollowingPlayhead() {
+        playheadTimer.stop();
+        int row = trackerApp.getTrackPlayer().takePlayheadRow();
+        if (row != TrackPlayer.NO_ROW && row != TrackPlayer.END_OF_TRACK) {
+            setRowSelectionInterval(row - 1, row - 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: selects the latest row published by the track player, skipping rows that were missed,
+    //          or stops the player and resets the media buttons if the track has finished playing
+    private void updatePlayhead() {
+        TrackPlayer trackPlayer = trackerApp.getTrackPlayer();
+        int row = trackPlayer.takePlayheadRow();
+        if (row == TrackPlayer.END_OF_TRACK) {
+            trackPlayer.stop();
+            trackerApp.getToolBar().resetMediaButtons();
+        } else if (row != TrackPlayer.NO_ROW) {
+            setRowSelectionInterval(row - 1, row - 1);
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: formats the track editor component
     private void formatTrackEditor() {
@@ -110,23 +147,12 @@ public class TrackEditor extends JTable {
     private static Map<String, Event> makeStringToEvent() {
         Map<String, Event> hashMap = new HashMap<>();
 
-        Event blank = new Event();
-        blank.clear();
-        Event rest = new Event();
-        rest.makeRest();
-
-        hashMap.put(toEditorString(blank.toString()), blank);
-        hashMap.put(toEditorString(rest.toString()), rest);
+        hashMap.put(toEditorString(Event.BLANK.toString()), Event.BLANK);
+        hashMap.put(toEditorString(Event.REST.toString()), Event.REST);
 
         for (int i = 1; i <= Event.MAX_PITCH; i++) {
-            Event note = new Event();
-            Event staccatoNote = new Event();
-
-            note.makeNote(i);
-            staccatoNote.makeNote(i);
-
-            note.makeNotStaccato();
-            staccatoNote.makeStaccato();
+            Event note = Event.note(i, false);
+            Event staccatoNote = Event.note(i, true);
 
             hashMap.put(toEditorString(note.toString()), note);
             hashMap.put(toEditorString(staccatoNote.toString()), staccatoNote);
@@ -136,31 +162,11 @@ public class TrackEditor extends JTable {
     }
 
     // MODIFIES: this
-    // EFFECTS: sets the event at the given row and channel according to the given editor string
-    private void setEventAt(String channel, int row, String string) {
-        Track track = trackerApp.getTrack();
+    // EFFECTS: sets the event at the given row and channel according to the given editor string,
+    //          or clears it if the string is not a valid event
+    private void setEventAt(Channel channel, int row, String string) {
         Event event = STRING_TO_EVENT.get(toEditorString(string));
-        if (event == null) {
-            track.clear(channel, row);
-            return;
-        }
-        String type = event.getType();
-        switch (type) {
-            case "blank":
-                track.clear(channel, row);
-                break;
-            case "rest":
-                track.addRest(channel, row);
-                break;
-            case "note":
-                track.addNote(channel, row, event.getPitch());
-                if (event.getIsStaccato()) {
-                    track.makeStaccato(channel, row);
-                } else {
-                    track.makeNotStaccato(channel, row);
-                }
-                break;
-        }
+        trackerApp.getTrack().setEvent(channel, row, event == null ? Event.BLANK : event);
     }
 
     // a table model that uses the current track to display the correct data
@@ -175,47 +181,31 @@ public class TrackEditor extends JTable {
         // EFFECTS: see super
         @Override
         public int getColumnCount() {
-            return 5;
+            return Channel.NUM_CHANNELS + 1;
         }
 
         // EFFECTS: see super
         @Override
         public String getColumnName(int columnIndex) {
-            switch (columnIndex) {
-                case 0:
-                    return "Row";
-                case 1:
-                    return "Pulse 1";
-                case 2:
-                    return "Pulse 2";
-                case 3:
-                    return "Triangle";
-                case 4:
-                    return "Noise";
-                default:
-                    return null;
+            if (columnIndex == 0) {
+                return "Row";
             }
+            return getChannel(columnIndex).getDisplayName();
         }
 
         // EFFECTS: see super
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
-            Track track = trackerApp.getTrack();
-            int rowNum = rowIndex + 1;
-            switch (columnIndex) {
-                case 0:
-                    return String.format("%03d", rowIndex);
-                case 1:
-                    return track.getEvent("pulse1", rowNum);
-                case 2:
-                    return track.getEvent("pulse2", rowNum);
-                case 3:
-                    return track.getEvent("triangle", rowNum);
-                case 4:
-                    return track.getEvent("noise", rowNum);
-                default:
-                    return null;
+            if (columnIndex == 0) {
+                return String.format("%03d", rowIndex);
             }
+            return trackerApp.getTrack().getEvent(getChannel(columnIndex), rowIndex + 1);
+        }
+
+        // REQUIRES: 1 <= columnIndex <= Channel.NUM_CHANNELS
+        // EFFECTS: returns the channel displayed in the given column
+        private Channel getChannel(int columnIndex) {
+            return Channel.fromIndex(columnIndex - 1);
         }
 
         // EFFECTS: see super
@@ -228,21 +218,8 @@ public class TrackEditor extends JTable {
         // EFFECTS: see super
         @Override
         public void setValueAt(Object value, int rowIndex, int columnIndex) {
-            String channel = null;
-            switch (columnIndex) {
-                case 1:
-                    channel = "pulse1";
-                    break;
-                case 2:
-                    channel = "pulse2";
-                    break;
-                case 3:
-                    channel = "triangle";
-                    break;
-                case 4:
-                    channel = "noise";
-            }
-            setEventAt(channel, rowIndex + 1, (String) value);
+            setEventAt(getChannel(columnIndex), rowIndex + 1, (String) value);
+            trackerApp.getTrackPlayer().rowsEdited(rowIndex + 1, rowIndex + 1);
         }
     }
 
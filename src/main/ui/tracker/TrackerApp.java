@@ -1,5 +1,6 @@
 package ui.tracker;
 
+import model.EditHistory;
 import model.Track;
 import ui.menu.MainMenu;
 import ui.sound.TrackPlayer;
@@ -25,6 +26,7 @@ public class TrackerApp extends JFrame {
     public TrackerApp(Track track, MainMenu mainMenu) {
         super(track.getName());
         this.track = track;
+        track.setHistory(new EditHistory());
         this.mainMenu = mainMenu;
         initializeComponents();
         trackPlayer = new TrackPlayer(this);
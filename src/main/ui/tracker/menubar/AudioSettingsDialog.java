@@ -0,0 +1,166 @@
+package ui.tracker.menubar;
+
+import ui.sound.AudioEngine;
+import ui.sound.TimingStats;
+import ui.tracker.TrackerApp;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+// represents a dialog window that sets the size of the audio output buffer and shows the measured output latency
+// and the row timing of the last playback
+// the dialog does not block the tracker so that the track can be played while the latency is being measured
+public class AudioSettingsDialog extends JDialog {
+    private static final Dimension WINDOW_SIZE = new Dimension(340, 230);
+    private static final Dimension LABEL_SIZE = new Dimension(300, 20);
+    private static final Dimension LIST_SPINNER_SIZE = new Dimension(65, 28);
+    private static final int REFRESH_MILLIS = 250;
+
+    private final TrackerApp trackerApp;
+    private final Timer refreshTimer;
+
+    private JSpinner periodFramesSpinner;
+    private JSpinner numPeriodsSpinner;
+    private JLabel requestedLabel;
+    private JLabel measuredLabel;
+    private JLabel timingLabel;
+    private JButton applyButton;
+    private JButton closeButton;
+
+    // EFFECTS: constructs and initializes the audio settings dialog window
+    public AudioSettingsDialog(TrackerApp trackerApp) {
+        super(trackerApp, "Audio Settings");
+        this.trackerApp = trackerApp;
+        initializeGraphics();
+        initializeInteraction();
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> updateMeasuredLabel());
+        refreshTimer.start();
+        updateRequestedLabel();
+        updateMeasuredLabel();
+        setModalityType(ModalityType.MODELESS);
+        setVisible(true);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops measuring the latency and closes the dialog
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: initializes the dialog box graphics
+    private void initializeGraphics() {
+        setLayout(new FlowLayout(FlowLayout.CENTER, EditMenu.SPACING, EditMenu.SPACING));
+        initializeComponents();
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setMinimumSize(WINDOW_SIZE);
+        setResizable(false);
+        setLocationRelativeTo(null);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: initializes the dialog box components
+    private void initializeComponents() {
+        periodFramesSpinner = new JSpinner(new SpinnerListModel(makePeriodSizes()));
+        periodFramesSpinner.setValue(AudioEngine.getPeriodFrames());
+        periodFramesSpinner.setPreferredSize(LIST_SPINNER_SIZE);
+        periodFramesSpinner.setFont(TrackerApp.FONT);
+        numPeriodsSpinner = new JSpinner(new SpinnerNumberModel(AudioEngine.getNumPeriods(),
+                AudioEngine.MIN_NUM_PERIODS, AudioEngine.MAX_NUM_PERIODS, 1));
+        EditMenu.formatSpinner(numPeriodsSpinner);
+
+        requestedLabel = new JLabel();
+        requestedLabel.setPreferredSize(LABEL_SIZE);
+        measuredLabel = new JLabel();
+        measuredLabel.setPreferredSize(LABEL_SIZE);
+        timingLabel = new JLabel();
+        timingLabel.setPreferredSize(LABEL_SIZE);
+
+        applyButton = new JButton("Apply");
+        applyButton.setPreferredSize(EditMenu.BUTTON_SIZE);
+        closeButton = new JButton("Close");
+        closeButton.setPreferredSize(EditMenu.BUTTON_SIZE);
+
+        add(periodFramesSpinner);
+        add(new JLabel("frames x"));
+        add(numPeriodsSpinner);
+        add(new JLabel("periods"));
+        add(requestedLabel);
+        add(measuredLabel);
+        add(timingLabel);
+        add(applyButton);
+        add(closeButton);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: initializes interaction for dialog box components
+    private void initializeInteraction() {
+        AudioSettingsDialogListener listener = new AudioSettingsDialogListener();
+        applyButton.addActionListener(listener);
+        closeButton.addActionListener(listener);
+        periodFramesSpinner.addChangeListener(e -> updateRequestedLabel());
+        numPeriodsSpinner.addChangeListener(e -> updateRequestedLabel());
+    }
+
+    // EFFECTS: returns the period sizes that can be chosen, the powers of two between the minimum and maximum
+    private static List<Integer> makePeriodSizes() {
+        List<Integer> periodSizes = new ArrayList<>();
+        for (int size = AudioEngine.MIN_PERIOD_FRAMES; size <= AudioEngine.MAX_PERIOD_FRAMES; size *= 2) {
+            periodSizes.add(size);
+        }
+        return periodSizes;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shows the buffer size in milliseconds of the current selection
+    private void updateRequestedLabel() {
+        int numFrames = (int) periodFramesSpinner.getValue() * (int) numPeriodsSpinner.getValue();
+        requestedLabel.setText(String.format("Buffer size: %.1f ms", AudioEngine.framesToMillis(numFrames)));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shows the latency most recently measured by the track player's audio engine and the row timing
+    //          measured by its sequencer
+    private void updateMeasuredLabel() {
+        TimingStats timingStats = trackerApp.getTrackPlayer().getTimingStats();
+        timingLabel.setText(String.format("Row timing: max drift %.2f, jitter %.2f frames",
+                timingStats.getMaxDriftFrames(), timingStats.getJitterFrames()));
+        AudioEngine audioEngine = trackerApp.getTrackPlayer().getAudioEngine();
+        if (audioEngine.isRunning()) {
+            measuredLabel.setText(String.format("Measured latency: %.1f ms (line buffer %.1f ms)",
+                    audioEngine.getLatencyMillis(), audioEngine.getBufferMillis()));
+        } else {
+            measuredLabel.setText("Measured latency: play the track to measure");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the buffer size to the current selection and reopens the output line if it is open
+    private void apply() {
+        AudioEngine.setBufferSize((int) periodFramesSpinner.getValue(), (int) numPeriodsSpinner.getValue());
+        trackerApp.getTrackPlayer().getAudioEngine().restart();
+        updateMeasuredLabel();
+    }
+
+    // an action listener for the audio settings dialog box buttons
+    private class AudioSettingsDialogListener implements ActionListener {
+
+        // MODIFIES: this
+        // EFFECTS: performs the required action when a button is pressed
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            Object source = e.getSource();
+            if (source.equals(applyButton)) {
+                apply();
+            } else if (source.equals(closeButton)) {
+                dispose();
+            }
+        }
+    }
+}
@@ -103,12 +103,7 @@ public class BarsDialog extends JDialog {
                 track.removeBars(numBars);
                 break;
             case "set":
-                int curBars = track.numberOfBars();
-                if (curBars < numBars) {
-                    track.addBars(numBars - curBars);
-                } else if (curBars > numBars) {
-                    track.removeBars(curBars - numBars);
-                }
+                track.setNumberOfBars(numBars);
                 break;
         }
         trackerApp.getTrackEditor().dataChanged();
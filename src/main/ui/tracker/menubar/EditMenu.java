@@ -1,11 +1,13 @@
 package ui.tracker.menubar;
 
+import model.Channel;
 import ui.tracker.TrackerApp;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 
 // represents the tracker application edit menu in the menu bar
 public class EditMenu extends JMenu {
@@ -15,6 +17,9 @@ public class EditMenu extends JMenu {
 
     private final TrackerApp trackerApp;
 
+    private JMenuItem undoButton;
+    private JMenuItem redoButton;
+
     private JMenuItem addBarsButton;
     private JMenuItem removeBarsButton;
     private JMenuItem setBarsButton;
@@ -40,6 +45,8 @@ public class EditMenu extends JMenu {
     // EFFECTS: initializes interaction for the edit menu components
     private void initializeInteraction() {
         EditMenuActionListener listener = new EditMenuActionListener();
+        undoButton.addActionListener(listener);
+        redoButton.addActionListener(listener);
         addBarsButton.addActionListener(listener);
         removeBarsButton.addActionListener(listener);
         setBarsButton.addActionListener(listener);
@@ -57,6 +64,8 @@ public class EditMenu extends JMenu {
     private void initializeGraphics() {
         TrackerApp.formatMenu(this);
 
+        initializeHistoryOptions();
+        add(new JSeparator());
         initializeBarsOptions();
         add(new JSeparator());
         initializeClearOptions();
@@ -64,6 +73,22 @@ public class EditMenu extends JMenu {
         initializeTransposeOptions();
     }
 
+    // MODIFIES: this
+    // EFFECTS: initializes the options to undo and redo edits
+    private void initializeHistoryOptions() {
+        int shortcutMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        undoButton = new JMenuItem("Undo");
+        undoButton.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcutMask));
+        redoButton = new JMenuItem("Redo");
+        redoButton.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, shortcutMask));
+
+        undoButton.setFont(TrackerApp.FONT);
+        redoButton.setFont(TrackerApp.FONT);
+
+        add(undoButton);
+        add(redoButton);
+    }
+
     // MODIFIES: this
     // EFFECTS: initializes the options to edit the number of bars
     private void initializeBarsOptions() {
@@ -151,7 +176,11 @@ public class EditMenu extends JMenu {
         @Override
         public void actionPerformed(ActionEvent e) {
             Object source = e.getSource();
-            if (source.equals(addBarsButton)) {
+            if (source.equals(undoButton)) {
+                trackerApp.getTrack().undo();
+            } else if (source.equals(redoButton)) {
+                trackerApp.getTrack().redo();
+            } else if (source.equals(addBarsButton)) {
                 new BarsDialog(trackerApp, "add");
             } else if (source.equals(removeBarsButton)) {
                 removeBarsIfEnough();
@@ -160,13 +189,13 @@ public class EditMenu extends JMenu {
             } else if (source.equals(clearTrackButton)) {
                 trackerApp.getTrack().clear();
             } else if (source.equals(clearPulse1Button)) {
-                trackerApp.getTrack().clear("pulse1");
+                trackerApp.getTrack().clear(Channel.PULSE1);
             } else if (source.equals(clearPulse2Button)) {
-                trackerApp.getTrack().clear("pulse2");
+                trackerApp.getTrack().clear(Channel.PULSE2);
             } else if (source.equals(clearTriangleButton)) {
-                trackerApp.getTrack().clear("triangle");
+                trackerApp.getTrack().clear(Channel.TRIANGLE);
             } else if (source.equals(clearNoiseButton)) {
-                trackerApp.getTrack().clear("noise");
+                trackerApp.getTrack().clear(Channel.NOISE);
             } else if (source.equals(clearOptionsButton)) {
                 new ClearDialog(trackerApp);
             } else if (source.equals(transposeButton)) {
@@ -1,17 +1,24 @@
 package ui.tracker.menubar;
 
 import model.Track;
+import ui.sound.OfflineRenderer;
 import ui.tracker.TrackerApp;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
 
 // represents the tracker application file menu in the menu bar
 public class FileMenu extends JMenu {
     private final TrackerApp trackerApp;
 
     private JMenuItem renameButton;
+    private JMenuItem exportButton;
+    private JMenuItem importJsonButton;
+    private JMenuItem exportJsonButton;
+    private JMenuItem audioSettingsButton;
     private JMenuItem quitButton;
     private JMenuItem quitToMenuButton;
 
@@ -29,14 +36,26 @@ public class FileMenu extends JMenu {
         TrackerApp.formatMenu(this);
 
         renameButton = new JMenuItem("Rename");
+        exportButton = new JMenuItem("Export to WAV...");
+        importJsonButton = new JMenuItem("Import Tracks from JSON...");
+        exportJsonButton = new JMenuItem("Export Tracks to JSON...");
+        audioSettingsButton = new JMenuItem("Audio Settings...");
         quitToMenuButton = new JMenuItem("Save & Quit to Menu");
         quitButton = new JMenuItem("Save & Quit");
 
         renameButton.setFont(TrackerApp.FONT);
+        exportButton.setFont(TrackerApp.FONT);
+        importJsonButton.setFont(TrackerApp.FONT);
+        exportJsonButton.setFont(TrackerApp.FONT);
+        audioSettingsButton.setFont(TrackerApp.FONT);
         quitToMenuButton.setFont(TrackerApp.FONT);
         quitButton.setFont(TrackerApp.FONT);
 
         add(renameButton);
+        add(exportButton);
+        add(importJsonButton);
+        add(exportJsonButton);
+        add(audioSettingsButton);
         add(quitToMenuButton);
         add(quitButton);
     }
@@ -46,25 +65,88 @@ public class FileMenu extends JMenu {
     private void initializeInteraction() {
         FileMenuListener listener = new FileMenuListener();
         renameButton.addActionListener(listener);
+        exportButton.addActionListener(listener);
+        importJsonButton.addActionListener(listener);
+        exportJsonButton.addActionListener(listener);
+        audioSettingsButton.addActionListener(listener);
         quitToMenuButton.addActionListener(listener);
         quitButton.addActionListener(listener);
     }
 
     // MODIFIES: this
-    // EFFECTS: displays a dialog box that allows the user to rename the current track
+    // EFFECTS: displays a dialog box that allows the user to rename the current track,
+    //          then displays an error message if another track already has the new name
     private void rename() {
         Track track = trackerApp.getTrack();
         String name = (String) JOptionPane.showInputDialog(trackerApp, null, "Rename",
                 JOptionPane.PLAIN_MESSAGE, null, null, track.getName());
-        if (!(name == null) && !name.equals("")) {
-            track.setName(name);
+        if (name != null && !name.equals(track.getName())
+                && trackerApp.getMainMenu().getTracker().hasTrackNamed(name)) {
+            JOptionPane.showMessageDialog(trackerApp, "A track with that name already exists.", "Rename",
+                    JOptionPane.PLAIN_MESSAGE, null);
+        } else if (!(name == null) && !name.equals("")) {
+            trackerApp.getMainMenu().getTracker().renameTrack(track, name);
             trackerApp.setTitle(name);
         }
     }
 
+    // EFFECTS: displays a file chooser and renders the current track to the chosen WAV file,
+    //          then reports how much faster than real time the track was rendered
+    private void exportToWav() {
+        Track track = trackerApp.getTrack();
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new File(track.getName() + ".wav"));
+        if (fileChooser.showSaveDialog(trackerApp) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            double realTimeFactor = OfflineRenderer.render(track, fileChooser.getSelectedFile());
+            String message = String.format("Exported %.1f s of audio at %.0fx real time.",
+                    OfflineRenderer.getDurationSeconds(track), realTimeFactor);
+            JOptionPane.showMessageDialog(trackerApp, message, "Export to WAV", JOptionPane.PLAIN_MESSAGE, null);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(trackerApp, "Unable to write to file: " + fileChooser.getSelectedFile(),
+                    "Export to WAV", JOptionPane.ERROR_MESSAGE, null);
+        }
+    }
+
+    // EFFECTS: displays a file chooser and adds the tracks in the chosen JSON file whose names are not taken,
+    //          then reports how many tracks were added
+    private void importFromJson() {
+        JFileChooser fileChooser = new JFileChooser();
+        if (fileChooser.showOpenDialog(trackerApp) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            int numImported = trackerApp.getMainMenu().importFromJson(fileChooser.getSelectedFile());
+            JOptionPane.showMessageDialog(trackerApp, "Imported " + numImported + " track(s).",
+                    "Import Tracks from JSON", JOptionPane.PLAIN_MESSAGE, null);
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(trackerApp, "Unable to read from file: " + fileChooser.getSelectedFile(),
+                    "Import Tracks from JSON", JOptionPane.ERROR_MESSAGE, null);
+        }
+    }
+
+    // EFFECTS: displays a file chooser and writes every track to the chosen file as JSON
+    private void exportToJson() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new File("tracker.json"));
+        if (fileChooser.showSaveDialog(trackerApp) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            trackerApp.getMainMenu().exportToJson(fileChooser.getSelectedFile());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(trackerApp, "Unable to write to file: " + fileChooser.getSelectedFile(),
+                    "Export Tracks to JSON", JOptionPane.ERROR_MESSAGE, null);
+        }
+    }
+
     // MODIFIES: this
-    // EFFECTS: quits the main tracker application and returns to the main menu
+    // EFFECTS: saves the tracker in the background, quits the main tracker application and returns to the main menu
     private void quitToMenu() {
+        trackerApp.getMainMenu().saveTracker(() -> { });
+        trackerApp.getTrackPlayer().close();
         trackerApp.dispose();
         trackerApp.getMainMenu().goBack();
         trackerApp.getMainMenu().setVisible(true);
@@ -80,6 +162,14 @@ public class FileMenu extends JMenu {
             Object source = e.getSource();
             if (source == renameButton) {
                 rename();
+            } else if (source == exportButton) {
+                exportToWav();
+            } else if (source == importJsonButton) {
+                importFromJson();
+            } else if (source == exportJsonButton) {
+                exportToJson();
+            } else if (source == audioSettingsButton) {
+                new AudioSettingsDialog(trackerApp);
             } else if (source == quitToMenuButton) {
                 quitToMenu();
             } else if (source == quitButton) {
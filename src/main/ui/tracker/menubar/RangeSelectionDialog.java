@@ -0,0 +1,125 @@
+package ui.tracker.menubar;
+
+import ui.tracker.TrackerApp;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
+
+// represents a selection dialog box which also allows the user to select a range of rows (or all rows)
+public abstract class RangeSelectionDialog extends SelectionDialog {
+    private JCheckBox allRowsCheckBox;
+    private JSpinner firstRowSpinner;
+    private JSpinner lastRowSpinner;
+    private JLabel fromLabel;
+    private JLabel toLabel;
+
+    // EFFECTS: constructs and initializes the range selection dialog box
+    public RangeSelectionDialog(TrackerApp trackerApp, String title, int windowHeight) {
+        super(trackerApp, title, windowHeight);
+    }
+
+    // EFFECTS: returns true if the user has selected all rows
+    protected boolean isAllRowsSelected() {
+        return allRowsCheckBox.isSelected();
+    }
+
+    // EFFECTS: returns the first selected row of the track
+    protected int getFirstRow() {
+        return (int) firstRowSpinner.getValue() + 1;
+    }
+
+    // EFFECTS: returns the last selected row of the track
+    protected int getLastRow() {
+        return (int) lastRowSpinner.getValue() + 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: initializes the components which allow the user to select a range of rows
+    protected void initializeRowSelection() {
+        allRowsCheckBox = new JCheckBox("All Rows");
+
+        add(Box.createHorizontalStrut(82));
+        add(allRowsCheckBox);
+        add(Box.createHorizontalStrut(82));
+
+        initializeSpinners();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: initializes interaction for the row selection components
+    protected void initializeRowSelectionInteraction() {
+        allRowsCheckBox.addItemListener(new AllRowsCheckBoxListener());
+
+        SpinnerListener spinnerListener = new SpinnerListener();
+        firstRowSpinner.addChangeListener(spinnerListener);
+        lastRowSpinner.addChangeListener(spinnerListener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: initializes the row selection spinners
+    private void initializeSpinners() {
+        int maxRow = trackerApp.getTrack().numberOfRows() - 1;
+
+        SpinnerNumberModel firstModel = new SpinnerNumberModel(0, 0, maxRow, 1);
+        SpinnerNumberModel lastModel = new SpinnerNumberModel(0, 0, maxRow, 1);
+
+        firstRowSpinner = new JSpinner(firstModel);
+        lastRowSpinner = new JSpinner(lastModel);
+
+        fromLabel = new JLabel("From Row:");
+        toLabel = new JLabel("To Row:");
+
+        EditMenu.formatSpinner(firstRowSpinner);
+        EditMenu.formatSpinner(lastRowSpinner);
+
+        add(fromLabel);
+        add(firstRowSpinner);
+        add(toLabel);
+        add(lastRowSpinner);
+    }
+
+    // an item listener for the all rows check box
+    private class AllRowsCheckBoxListener implements ItemListener {
+
+        // MODIFIES: this
+        // EFFECTS: enables and disables the row selection spinners when the all rows check box is checked
+        @Override
+        public void itemStateChanged(ItemEvent e) {
+            int stateChange = e.getStateChange();
+            if (stateChange == ItemEvent.SELECTED) {
+                firstRowSpinner.setEnabled(false);
+                lastRowSpinner.setEnabled(false);
+                fromLabel.setEnabled(false);
+                toLabel.setEnabled(false);
+            } else if (stateChange == ItemEvent.DESELECTED) {
+                firstRowSpinner.setEnabled(true);
+                lastRowSpinner.setEnabled(true);
+                fromLabel.setEnabled(true);
+                toLabel.setEnabled(true);
+            }
+        }
+    }
+
+    // a change listener for the row selection spinners
+    private class SpinnerListener implements ChangeListener {
+
+        // MODIFIES: this
+        // EFFECTS: continuously edits the spinner values so that the first value is <= second value
+        @Override
+        public void stateChanged(ChangeEvent e) {
+            Object source = e.getSource();
+            int firstRowValue = (int) firstRowSpinner.getValue();
+            int lastRowValue = (int) lastRowSpinner.getValue();
+            if (lastRowValue < firstRowValue) {
+                if (source == firstRowSpinner) {
+                    lastRowSpinner.setValue(firstRowValue);
+                } else if (source == lastRowSpinner) {
+                    firstRowSpinner.setValue(lastRowValue);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ui.tracker.menubar;
 
+import model.Channel;
 import ui.tracker.TrackerApp;
 
 import javax.swing.*;
@@ -10,11 +11,11 @@ import java.awt.event.ActionListener;
 // represents a dialog box which allows the user to select a channel in the track (or all channels)
 public abstract class SelectionDialog extends JDialog {
     private static final int WINDOW_WIDTH = 280;
-    private static final String[] CHANNEL_OPTIONS = {"All Channels", "Pulse 1", "Pulse 2", "Triangle", "Noise"};
+    private static final String ALL_CHANNELS = "All Channels";
 
     protected TrackerApp trackerApp;
 
-    private JComboBox<String> channelSelector;
+    private JComboBox<Object> channelSelector;
     private JButton okButton;
     private JButton cancelButton;
 
@@ -55,7 +56,11 @@ public abstract class SelectionDialog extends JDialog {
     // EFFECTS: initializes the components which allow the user to select a channel
     private void initializeChannelSelection() {
         JLabel channelLabel = new JLabel("Channel:");
-        channelSelector = new JComboBox<>(CHANNEL_OPTIONS);
+        channelSelector = new JComboBox<>();
+        channelSelector.addItem(ALL_CHANNELS);
+        for (Channel channel : Channel.values()) {
+            channelSelector.addItem(channel);
+        }
 
         add(channelLabel);
         add(channelSelector);
@@ -91,33 +96,21 @@ public abstract class SelectionDialog extends JDialog {
     // MODIFIES: this
     // EFFECTS: performs the required action when the ok button is pressed
     private void okButtonHit() {
-        String channelSelection = (String) channelSelector.getSelectedItem();
+        Object channelSelection = channelSelector.getSelectedItem();
         if (channelSelection == null) {
             return;
         }
-        switch (channelSelection) {
-            case "All Channels":
-                applyToAllChannels();
-                break;
-            case "Pulse 1":
-                applyToChannel("pulse1");
-                break;
-            case "Pulse 2":
-                applyToChannel("pulse2");
-                break;
-            case "Triangle":
-                applyToChannel("triangle");
-                break;
-            case "Noise":
-                applyToChannel("noise");
-                break;
+        if (channelSelection == ALL_CHANNELS) {
+            applyToAllChannels();
+        } else {
+            applyToChannel((Channel) channelSelection);
         }
         trackerApp.getTrackEditor().dataChanged();
     }
 
     // MODIFIES: this
     // EFFECTS: applies the required operation to the given channel
-    protected abstract void applyToChannel(String channel);
+    protected abstract void applyToChannel(Channel channel);
 
     // MODIFIES: this
     // EFFECTS: applies the required operation to all channels
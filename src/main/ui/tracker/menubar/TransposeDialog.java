@@ -1,5 +1,6 @@
 package ui.tracker.menubar;
 
+import model.Channel;
 import ui.tracker.TrackerApp;
 
 import javax.swing.*;
@@ -7,8 +8,8 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 
 // represents a selection dialog box that allows the user to transpose parts of the track
-public class TransposeDialog extends SelectionDialog {
-    private static final int WINDOW_HEIGHT = 232;
+public class TransposeDialog extends RangeSelectionDialog {
+    private static final int WINDOW_HEIGHT = 310;
 
     private JRadioButton downButton;
     private JCheckBox octaveCheckBox;
@@ -26,6 +27,7 @@ public class TransposeDialog extends SelectionDialog {
     // EFFECTS: see super
     @Override
     protected void initializeSpecificGraphics() {
+        initializeRowSelection();
         initializeRadioButtons();
         initializeOctaveCheckBox();
         initializeSemitoneSelector();
@@ -89,21 +91,30 @@ public class TransposeDialog extends SelectionDialog {
     // EFFECTS: see super
     @Override
     protected void initializeSpecificInteraction() {
+        initializeRowSelectionInteraction();
         octaveCheckBox.addItemListener(new OctaveCheckBoxListener());
     }
 
     // MODIFIES: this
     // EFFECTS: see super
     @Override
-    protected void applyToChannel(String channel) {
-        trackerApp.getTrack().transpose(channel, getNumSemitones());
+    protected void applyToChannel(Channel channel) {
+        if (isAllRowsSelected()) {
+            trackerApp.getTrack().transpose(channel, getNumSemitones());
+        } else {
+            trackerApp.getTrack().transpose(channel, getFirstRow(), getLastRow(), getNumSemitones());
+        }
     }
 
     // MODIFIES: this
     // EFFECTS: see super
     @Override
     protected void applyToAllChannels() {
-        trackerApp.getTrack().transpose(getNumSemitones());
+        if (isAllRowsSelected()) {
+            trackerApp.getTrack().transpose(getNumSemitones());
+        } else {
+            trackerApp.getTrack().transpose(getFirstRow(), getLastRow(), getNumSemitones());
+        }
     }
 
     // an item listener for the octave check box
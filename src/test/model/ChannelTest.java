@@ -0,0 +1,35 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChannelTest {
+
+    @Test
+    void testFromIndex() {
+        for (Channel channel : Channel.values()) {
+            assertEquals(channel, Channel.fromIndex(channel.ordinal()));
+        }
+        assertEquals(Channel.NUM_CHANNELS, Channel.values().length);
+    }
+
+    @Test
+    void testFromKey() {
+        assertEquals(Channel.PULSE1, Channel.fromKey("pulse1"));
+        assertEquals(Channel.PULSE2, Channel.fromKey("pulse2"));
+        assertEquals(Channel.TRIANGLE, Channel.fromKey("triangle"));
+        assertEquals(Channel.NOISE, Channel.fromKey("noise"));
+    }
+
+    @Test
+    void testFromKeyUnknown() {
+        assertThrows(IllegalArgumentException.class, () -> Channel.fromKey("pulse3"));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("Pulse 1", Channel.PULSE1.toString());
+        assertEquals("Noise", Channel.NOISE.getDisplayName());
+    }
+}
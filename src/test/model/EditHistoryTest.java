@@ -0,0 +1,263 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditHistoryTest {
+    EditHistory history;
+    Track track;
+
+    @BeforeEach
+    void setup() {
+        history = new EditHistory(EditHistory.DEFAULT_MEMORY_BUDGET, 0);
+        track = new Track("track");
+        track.setHistory(history);
+    }
+
+    @Test
+    void testConstructor() {
+        assertFalse(history.canUndo());
+        assertFalse(history.canRedo());
+        assertEquals(0, history.getMemoryUsed());
+        assertSame(history, track.getHistory());
+    }
+
+    @Test
+    void testNoHistory() {
+        Track other = new Track("other");
+        other.addNote(Channel.PULSE1, 1, 10);
+        assertNull(other.getHistory());
+        assertFalse(other.undo());
+        assertFalse(other.redo());
+        assertEquals(Event.note(10), other.getEvent(Channel.PULSE1, 1));
+    }
+
+    @Test
+    void testUndoRedoNote() {
+        track.addNote(Channel.PULSE1, 3, 10);
+        assertTrue(history.canUndo());
+        assertTrue(track.undo());
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 3));
+        assertFalse(history.canUndo());
+        assertTrue(history.canRedo());
+        assertTrue(track.redo());
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 3));
+        assertFalse(track.redo());
+    }
+
+    @Test
+    void testUnchangedEditNotRecorded() {
+        track.clear(Channel.NOISE, 1);
+        track.transpose(5);
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    void testUndoOrder() {
+        track.addNote(Channel.PULSE2, 1, 10);
+        assertTrue(track.makeStaccato(Channel.PULSE2, 1));
+        track.addRest(Channel.PULSE2, 1);
+        track.undo();
+        assertEquals(Event.note(10, true), track.getEvent(Channel.PULSE2, 1));
+        track.undo();
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE2, 1));
+        track.undo();
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE2, 1));
+    }
+
+    @Test
+    void testNewEditClearsRedo() {
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.undo();
+        track.addNote(Channel.PULSE1, 2, 20);
+        assertFalse(history.canRedo());
+        track.undo();
+        assertFalse(history.canUndo());
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 1));
+    }
+
+    @Test
+    void testUndoTrackTranspose() {
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.addNote(Channel.NOISE, 32, Event.MAX_PITCH);
+        track.transpose(5);
+        assertEquals(Event.note(15), track.getEvent(Channel.PULSE1, 1));
+        track.undo();
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.note(Event.MAX_PITCH), track.getEvent(Channel.NOISE, 32));
+        track.redo();
+        assertEquals(Event.note(15), track.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.note(Event.MAX_PITCH).transpose(5), track.getEvent(Channel.NOISE, 32));
+    }
+
+    @Test
+    void testUndoClear() {
+        track.addNote(Channel.TRIANGLE, 5, 10);
+        track.addRest(Channel.PULSE1, 6);
+        track.clear();
+        track.undo();
+        assertEquals(Event.note(10), track.getEvent(Channel.TRIANGLE, 5));
+        assertEquals(Event.REST, track.getEvent(Channel.PULSE1, 6));
+        assertTrue(history.canRedo());
+    }
+
+    @Test
+    void testUndoRemoveBars() {
+        track.addBars(2);
+        track.addNote(Channel.PULSE1, 60, 10);
+        track.removeBars(2);
+        assertEquals(2, track.numberOfBars());
+        track.undo();
+        assertEquals(4, track.numberOfBars());
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 60));
+        track.redo();
+        assertEquals(2, track.numberOfBars());
+        track.addBars(2);
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 60));
+    }
+
+    @Test
+    void testUndoAddBars() {
+        track.addBars(3);
+        track.undo();
+        assertEquals(2, track.numberOfBars());
+        track.redo();
+        assertEquals(5, track.numberOfBars());
+    }
+
+    @Test
+    void testCoalesceCellEdits() {
+        history = new EditHistory(EditHistory.DEFAULT_MEMORY_BUDGET, Long.MAX_VALUE);
+        track.setHistory(history);
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.addNote(Channel.PULSE1, 2, 11);
+        track.addNote(Channel.PULSE1, 1, 12);
+        track.undo();
+        assertFalse(history.canUndo());
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 2));
+        track.redo();
+        assertEquals(Event.note(12), track.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.note(11), track.getEvent(Channel.PULSE1, 2));
+    }
+
+    @Test
+    void testNoCoalesceOtherChannelOrRows() {
+        history = new EditHistory(EditHistory.DEFAULT_MEMORY_BUDGET, Long.MAX_VALUE);
+        track.setHistory(history);
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.addNote(Channel.PULSE2, 1, 11);
+        track.addNote(Channel.PULSE2, 2, 12);
+        track.addNote(Channel.PULSE2, 5, 13);
+        track.undo();
+        assertEquals(Event.note(12), track.getEvent(Channel.PULSE2, 2));
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE2, 5));
+        track.undo();
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE2, 1));
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 1));
+        track.undo();
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    void testCoalesceWindowStartsAtFirstEdit() throws InterruptedException {
+        history = new EditHistory(EditHistory.DEFAULT_MEMORY_BUDGET, 100);
+        track.setHistory(history);
+        for (int row = 1; row <= 12; row++) {
+            track.addNote(Channel.PULSE1, row, 10);
+            Thread.sleep(30);
+        }
+        int numUndone = 0;
+        while (track.undo()) {
+            numUndone++;
+        }
+        assertTrue(numUndone >= 2);
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 12));
+    }
+
+    @Test
+    void testNoCoalesceAcrossBulkEdit() {
+        history = new EditHistory(EditHistory.DEFAULT_MEMORY_BUDGET, Long.MAX_VALUE);
+        track.setHistory(history);
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.transpose(1);
+        track.addNote(Channel.PULSE1, 2, 11);
+        track.undo();
+        assertEquals(Event.note(11), track.getEvent(Channel.PULSE1, 1));
+        track.undo();
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 1));
+        track.undo();
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    void testNoCoalesceAfterUndo() {
+        history = new EditHistory(EditHistory.DEFAULT_MEMORY_BUDGET, Long.MAX_VALUE);
+        track.setHistory(history);
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.addBars(1);
+        track.undo();
+        track.addNote(Channel.PULSE1, 2, 11);
+        track.undo();
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 1));
+        assertTrue(history.canUndo());
+    }
+
+    @Test
+    void testMemoryBudget() {
+        history = new EditHistory(200, 0);
+        track.setHistory(history);
+        for (int row = 1; row <= 20; row++) {
+            track.addNote(Channel.PULSE1, row, 10);
+        }
+        assertTrue(history.getMemoryUsed() <= 200);
+        int numUndone = 0;
+        while (track.undo()) {
+            numUndone++;
+        }
+        assertTrue(numUndone > 0 && numUndone < 20);
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 20));
+    }
+
+    @Test
+    void testMemoryBudgetKeepsNewestEdit() {
+        history = new EditHistory(100, 0);
+        track.setHistory(history);
+        for (int row = 1; row <= 20; row++) {
+            track.addNote(Channel.PULSE1, row, 10);
+        }
+        track.clear();
+        assertTrue(history.getMemoryUsed() > 100);
+        assertTrue(track.undo());
+        assertFalse(history.canUndo());
+        for (int row = 1; row <= 20; row++) {
+            assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, row));
+        }
+        assertTrue(track.redo());
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 20));
+    }
+
+    @Test
+    void testMemoryProportionalToChange() {
+        track.setNumberOfBars(1000);
+        history.clear();
+        track.addNote(Channel.PULSE1, 1, 10);
+        long cellMemory = history.getMemoryUsed();
+        track.transpose(1);
+        assertEquals(2 * cellMemory, history.getMemoryUsed());
+    }
+
+    @Test
+    void testClear() {
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.undo();
+        history.clear();
+        assertFalse(history.canUndo());
+        assertFalse(history.canRedo());
+        assertEquals(0, history.getMemoryUsed());
+    }
+}
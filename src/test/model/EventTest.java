@@ -10,132 +10,83 @@ public class EventTest {
 
     @BeforeEach
     void setup() {
-        event = new Event();
+        event = Event.BLANK;
     }
 
     @Test
-    void testConstructor() {
+    void testBlank() {
         assertEquals("blank", event.getType());
         assertEquals(0, event.getPitch());
         assertFalse(event.getIsStaccato());
+        assertFalse(event.isNote());
     }
 
     @Test
-    void testMakeNoteBlank() {
-        event.clear();
-        event.makeNote(5);
-        assertEquals("note", event.getType());
-        assertEquals(5, event.getPitch());
-        assertFalse(event.getIsStaccato());
-    }
-
-    @Test
-    void testMakeNoteRest() {
-        event.makeRest();
-        event.makeNote(10);
-        assertEquals("note", event.getType());
-        assertEquals(10, event.getPitch());
-        assertFalse(event.getIsStaccato());
-    }
-
-    @Test
-    void testMakeRestBlank() {
-        event.clear();
-        event.makeRest();
-        assertEquals("rest", event.getType());
-        assertEquals(0, event.getPitch());
-        assertFalse(event.getIsStaccato());
-    }
-
-    @Test
-    void testMakeRestNote() {
-        event.makeNote(8);
-        event.makeRest();
+    void testRest() {
+        event = Event.REST;
         assertEquals("rest", event.getType());
         assertEquals(0, event.getPitch());
         assertFalse(event.getIsStaccato());
+        assertFalse(event.isNote());
     }
 
     @Test
-    void testClearNote() {
-        event.makeNote(4);
-        event.clear();
-        assertEquals("blank", event.getType());
-        assertEquals(0, event.getPitch());
+    void testNote() {
+        event = Event.note(5);
+        assertEquals("note", event.getType());
+        assertEquals(5, event.getPitch());
         assertFalse(event.getIsStaccato());
+        assertTrue(event.isNote());
     }
 
     @Test
-    void testClearRest() {
-        event.makeRest();
-        event.clear();
-        assertEquals("blank", event.getType());
-        assertEquals(0, event.getPitch());
-        assertFalse(event.getIsStaccato());
+    void testNoteStaccato() {
+        event = Event.note(10, true);
+        assertEquals("note", event.getType());
+        assertEquals(10, event.getPitch());
+        assertTrue(event.getIsStaccato());
+        assertSame(Event.note(10), Event.note(10, false));
     }
 
     void testTranspose(int pitch, int numSemitones, int expected) {
-        event.makeNote(pitch);
-        event.transpose(numSemitones);
+        event = Event.note(pitch).transpose(numSemitones);
         assertEquals(expected, event.getPitch());
     }
 
     @Test
-    void testMakeStaccatoBlank() {
-        event.clear();
-        assertFalse(event.makeStaccato());
-        assertFalse(event.getIsStaccato());
-    }
-
-    @Test
-    void testMakeStaccatoRest() {
-        event.makeRest();
-        assertFalse(event.makeStaccato());
-        assertFalse(event.getIsStaccato());
+    void testWithStaccatoBlank() {
+        assertSame(Event.BLANK, event.withStaccato(true));
     }
 
     @Test
-    void testMakeStaccatoNote() {
-        event.makeNote(12);
-        assertTrue(event.makeStaccato());
-        assertTrue(event.getIsStaccato());
+    void testWithStaccatoRest() {
+        assertSame(Event.REST, Event.REST.withStaccato(true));
     }
 
     @Test
-    void testMakeStaccatoNoteAlreadyStaccato() {
-        event.makeNote(12);
-        event.makeStaccato();
-        assertTrue(event.makeStaccato());
+    void testWithStaccatoNote() {
+        event = Event.note(12).withStaccato(true);
+        assertEquals(12, event.getPitch());
         assertTrue(event.getIsStaccato());
     }
 
     @Test
-    void testMakeNotStaccatoBlank() {
-        event.clear();
-        assertFalse(event.makeNotStaccato());
-        assertFalse(event.getIsStaccato());
-    }
-
-    @Test
-    void testMakeNotStaccatoRest() {
-        event.makeRest();
-        assertFalse(event.makeNotStaccato());
-        assertFalse(event.getIsStaccato());
+    void testWithStaccatoNoteAlreadyStaccato() {
+        event = Event.note(12, true);
+        assertSame(event, event.withStaccato(true));
     }
 
     @Test
-    void testMakeNotStaccatoNote() {
-        event.makeNote(3);
-        event.makeStaccato();
-        assertTrue(event.makeNotStaccato());
+    void testWithNotStaccatoNote() {
+        event = Event.note(3, true).withStaccato(false);
+        assertEquals(3, event.getPitch());
         assertFalse(event.getIsStaccato());
     }
 
     @Test
-    void testMakeNotStaccatoNoteAlreadyNotStaccato() {
-        event.makeNote(1);
-        assertTrue(event.makeNotStaccato());
-        assertFalse(event.getIsStaccato());
+    void testWithNotStaccatoNoteAlreadyNotStaccato() {
+        event = Event.note(1);
+        assertSame(event, event.withStaccato(false));
     }
 
     @Test
@@ -178,23 +129,45 @@ public class EventTest {
         testTranspose(2, -5, 9);
     }
 
+    @Test
+    void testTransposeUpManyOctavesOutOfRange() {
+        testTranspose(1, 5 * 12 + 3, Event.MAX_PITCH - 8);
+    }
+
+    @Test
+    void testTransposeDownManyOctavesOutOfRange() {
+        testTranspose(Event.MAX_PITCH, -(7 * 12 + 1), 11);
+    }
+
+    @Test
+    void testTransposeTable() {
+        for (int numSemitones = -100; numSemitones <= 100; numSemitones += 7) {
+            short[] table = Event.transposeTable(numSemitones);
+            assertEquals(Event.NUM_EVENTS, table.length);
+            for (int i = 0; i < Event.NUM_EVENTS; i++) {
+                assertSame(Event.fromIndex(i).transpose(numSemitones), Event.fromIndex(table[i]));
+            }
+        }
+        assertSame(Event.transposeTable(5), Event.transposeTable(5));
+    }
+
     @Test
     void testTransposeBlank() {
-        event.clear();
-        event.transpose(5);
-        assertEquals(0, event.getPitch());
+        assertSame(Event.BLANK, event.transpose(5));
     }
 
     @Test
     void testTransposeRest() {
-        event.makeRest();
-        event.transpose(-5);
-        assertEquals(0, event.getPitch());
+        assertSame(Event.REST, Event.REST.transpose(-5));
+    }
+
+    @Test
+    void testTransposeKeepsStaccato() {
+        assertSame(Event.note(9, true), Event.note(7, true).transpose(2));
     }
 
     void testTransposeUpByOctave(int pitch, int expected) {
-        event.makeNote(pitch);
-        event.transposeUpByOctave();
+        event = Event.note(pitch).transposeUpByOctave();
         assertEquals(expected, event.getPitch());
     }
 
@@ -219,8 +192,7 @@ public class EventTest {
     }
 
     void testTransposeDownByOctave(int pitch, int expected) {
-        event.makeNote(pitch);
-        event.transposeDownByOctave();
+        event = Event.note(pitch).transposeDownByOctave();
         assertEquals(expected, event.getPitch());
     }
 
@@ -245,131 +217,92 @@ public class EventTest {
     }
 
     @Test
-    void testEqualsNotesSamePitch() {
-        Event note1 = new Event();
-        note1.makeNote(14);
-        Event note2 = new Event();
-        note2.makeNote(14);
-        assertEquals(note2, note1);
-        assertEquals(note2.hashCode(), note1.hashCode());
-    }
-
-    @Test
-    void testEqualsNotesSamePitchOneStaccato() {
-        Event note1 = new Event();
-        note1.makeNote(6);
-        Event note2 = new Event();
-        note2.makeNote(6);
-        note2.makeStaccato();
-        assertNotEquals(note2, note1);
+    void testSameNotesSamePitch() {
+        Event note1 = Event.note(14);
+        Event note2 = Event.note(14);
+        assertSame(note2, note1);
     }
 
     @Test
-    void testEqualsNotesSamePitchBothStaccato() {
-        Event note1 = new Event();
-        note1.makeNote(1);
-        note1.makeStaccato();
-        Event note2 = new Event();
-        note2.makeNote(1);
-        note2.makeStaccato();
-        assertEquals(note2, note1);
-        assertEquals(note2.hashCode(), note1.hashCode());
+    void testSameNotesSamePitchOneStaccato() {
+        Event note1 = Event.note(6);
+        Event note2 = Event.note(6, true);
+        assertNotSame(note2, note1);
     }
 
     @Test
-    void testEqualsNotesDifferentPitch() {
-        Event note1 = new Event();
-        note1.makeNote(12);
-        Event note2 = new Event();
-        note2.makeNote(20);
-        assertNotEquals(note2, note1);
+    void testSameNotesSamePitchBothStaccato() {
+        Event note1 = Event.note(1, true);
+        Event note2 = Event.note(1, true);
+        assertSame(note2, note1);
     }
 
     @Test
-    void testEqualsNotesDifferentPitchOneStaccato() {
-        Event note1 = new Event();
-        note1.makeNote(3);
-        Event note2 = new Event();
-        note2.makeNote(1);
-        note2.makeStaccato();
-        assertNotEquals(note2, note1);
+    void testSameNotesDifferentPitch() {
+        Event note1 = Event.note(12);
+        Event note2 = Event.note(20);
+        assertNotSame(note2, note1);
     }
 
     @Test
-    void testEqualsNotesDifferentPitchBothStaccato() {
-        Event note1 = new Event();
-        note1.makeNote(18);
-        note1.makeStaccato();
-        Event note2 = new Event();
-        note2.makeNote(19);
-        note2.makeStaccato();
-        assertNotEquals(note2, note1);
+    void testSameNotesDifferentPitchOneStaccato() {
+        Event note1 = Event.note(3);
+        Event note2 = Event.note(1, true);
+        assertNotSame(note2, note1);
     }
 
     @Test
-    void testEqualsRests() {
-        Event rest1 = new Event();
-        rest1.makeRest();
-        Event rest2 = new Event();
-        rest2.makeRest();
-        assertEquals(rest2, rest1);
-        assertEquals(rest2.hashCode(), rest1.hashCode());
+    void testSameNotesDifferentPitchBothStaccato() {
+        Event note1 = Event.note(18, true);
+        Event note2 = Event.note(19, true);
+        assertNotSame(note2, note1);
     }
 
     @Test
-    void testEqualsBlanks() {
-        Event blank1 = new Event();
-        Event blank2 = new Event();
-        assertEquals(blank2, blank1);
-        assertEquals(blank2.hashCode(), blank1.hashCode());
+    void testSameRests() {
+        Event rest1 = Event.REST;
+        Event rest2 = Event.REST;
+        assertSame(rest2, rest1);
     }
 
     @Test
-    void testEqualsNoteAndRest() {
-        Event note = new Event();
-        note.makeNote(5);
-        Event rest = new Event();
-        rest.makeRest();
-        assertNotEquals(rest, note);
+    void testSameBlanks() {
+        Event blank1 = Event.BLANK;
+        Event blank2 = Event.BLANK;
+        assertSame(blank2, blank1);
     }
 
     @Test
-    void testEqualsNoteAndBlank() {
-        Event note = new Event();
-        note.makeNote(5);
-        Event blank = new Event();
-        assertNotEquals(blank, note);
+    void testSameNoteAndRest() {
+        Event note = Event.note(5);
+        Event rest = Event.REST;
+        assertNotSame(rest, note);
     }
 
     @Test
-    void testEqualsRestAndBlank() {
-        Event rest = new Event();
-        rest.makeRest();
-        Event blank = new Event();
-        assertNotEquals(blank, rest);
+    void testSameNoteAndBlank() {
+        Event note = Event.note(5);
+        Event blank = Event.BLANK;
+        assertNotSame(blank, note);
     }
 
     @Test
-    void testEqualsSameObject() {
-        assertEquals(event, event);
-        assertEquals(event.hashCode(), event.hashCode());
+    void testSameRestAndBlank() {
+        Event rest = Event.REST;
+        Event blank = Event.BLANK;
+        assertNotSame(blank, rest);
     }
 
     @Test
-    void testEqualsNull() {
+    void testEqualsIsIdentity() {
+        assertEquals(Event.note(6, true), Event.note(6).withStaccato(true));
+        assertNotEquals(Event.note(6), Event.note(6, true));
         assertNotEquals(event, null);
-    }
-
-    @Test
-    void testEqualsDifferentClasses() {
         assertNotEquals(event, new Object());
     }
 
     void testToString(int pitch, boolean isStaccato, String expected) {
-        event.makeNote(pitch);
-        if (isStaccato) {
-            event.makeStaccato();
-        }
+        event = Event.note(pitch, isStaccato);
         assertEquals(expected, event.toString());
     }
 
@@ -391,13 +324,33 @@ public class EventTest {
 
     @Test
     void testToStringBlank() {
-        event.clear();
         assertEquals(".... .", event.toString());
     }
 
     @Test
     void testToStringRest() {
-        event.makeRest();
+        event = Event.REST;
         assertEquals("STOP .", event.toString());
     }
+
+    @Test
+    void testIndex() {
+        assertEquals(0, Event.BLANK.getIndex());
+        for (int i = 0; i < Event.NUM_EVENTS; i++) {
+            assertEquals(i, Event.fromIndex(i).getIndex());
+        }
+    }
+
+    @Test
+    void testIndexDistinct() {
+        for (int i = 0; i < Event.NUM_EVENTS; i++) {
+            for (int j = i + 1; j < Event.NUM_EVENTS; j++) {
+                Event event1 = Event.fromIndex(i);
+                Event event2 = Event.fromIndex(j);
+                assertFalse(event1.getType().equals(event2.getType())
+                        && event1.getPitch() == event2.getPitch()
+                        && event1.getIsStaccato() == event2.getIsStaccato());
+            }
+        }
+    }
 }
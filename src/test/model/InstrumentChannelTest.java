@@ -1,8 +1,12 @@
 package model;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class InstrumentChannelTest {
@@ -12,7 +16,7 @@ public class InstrumentChannelTest {
     @BeforeEach
     void setup() {
         channel = new InstrumentChannel();
-        event = new Event();
+        event = Event.BLANK;
     }
 
     @Test
@@ -48,6 +52,37 @@ public class InstrumentChannelTest {
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS + 50, channel.numberOfBars());
     }
 
+    @Test
+    void testRemoveThenAddBarsIsBlank() {
+        channel.addNote(InstrumentChannel.ROWS_PER_BAR * 2, 10);
+        channel.removeBars(1);
+        channel.addBars(1);
+        assertEquals(event, channel.getEvent(InstrumentChannel.ROWS_PER_BAR * 2));
+    }
+
+    @Test
+    void testSetNumberOfBars() {
+        channel.setNumberOfBars(10000);
+        assertEquals(10000, channel.numberOfBars());
+        channel.addNote(10000 * InstrumentChannel.ROWS_PER_BAR, 5);
+        channel.setNumberOfBars(3);
+        assertEquals(3, channel.numberOfBars());
+        assertEquals(3 * InstrumentChannel.ROWS_PER_BAR, channel.numberOfRows());
+        channel.setNumberOfBars(10000);
+        assertEquals(event, channel.getEvent(10000 * InstrumentChannel.ROWS_PER_BAR));
+    }
+
+    @Test
+    void testEqualsAfterShrinking() {
+        InstrumentChannel other = new InstrumentChannel();
+        channel.addBars(40);
+        channel.addNote(1, 12);
+        channel.removeBars(40);
+        other.addNote(1, 12);
+        assertEquals(other, channel);
+        assertEquals(other.hashCode(), channel.hashCode());
+    }
+
     @Test
     void testNumberOfRows() {
         channel.addBars(20);
@@ -70,28 +105,28 @@ public class InstrumentChannelTest {
 
     @Test
     void testGetEventBlank() {
-        event.clear();
+        event = Event.BLANK;
         channel.clear(1);
         assertEquals(event, channel.getEvent(1));
     }
 
     @Test
     void testGetEventRest() {
-        event.makeRest();
+        event = Event.REST;
         channel.addRest(5);
         assertEquals(event, channel.getEvent(5));
     }
 
     @Test
     void testGetEventNote() {
-        event.makeNote(1);
+        event = Event.note(1);
         channel.addNote(10, 1);
         assertEquals(event, channel.getEvent(10));
     }
 
     @Test
     void testAddRest() {
-        event.makeRest();
+        event = Event.REST;
         channel.addRest(12);
         assertEquals(event, channel.getEvent(12));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, channel.numberOfBars());
@@ -99,7 +134,7 @@ public class InstrumentChannelTest {
 
     @Test
     void testAddNote() {
-        event.makeNote(10);
+        event = Event.note(10);
         channel.addNote(3, 10);
         assertEquals(event, channel.getEvent(3));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, channel.numberOfBars());
@@ -111,7 +146,7 @@ public class InstrumentChannelTest {
             channel.addNote(i, i);
         }
         for (int i = 1; i <= 32; i++) {
-            event.makeNote(i);
+            event = Event.note(i);
             assertEquals(event, channel.getEvent(i));
         }
     }
@@ -124,7 +159,7 @@ public class InstrumentChannelTest {
 
     @Test
     void testMakeStaccatoRest() {
-        event.makeRest();
+        event = Event.REST;
         channel.addRest(10);
         assertFalse(channel.makeStaccato(10));
         assertEquals(event, channel.getEvent(10));
@@ -132,8 +167,8 @@ public class InstrumentChannelTest {
 
     @Test
     void testMakeStaccatoNote() {
-        event.makeNote(5);
-        event.makeStaccato();
+        event = Event.note(5);
+        event = event.withStaccato(true);
         channel.addNote(2, 5);
         assertTrue(channel.makeStaccato(2));
         assertEquals(event, channel.getEvent(2));
@@ -141,8 +176,8 @@ public class InstrumentChannelTest {
 
     @Test
     void testMakeStaccatoAlreadyStaccato() {
-        event.makeNote(4);
-        event.makeStaccato();
+        event = Event.note(4);
+        event = event.withStaccato(true);
         channel.addNote(16, 4);
         channel.makeStaccato(16);
         assertTrue(channel.makeStaccato(16));
@@ -157,7 +192,7 @@ public class InstrumentChannelTest {
 
     @Test
     void testMakeNotStaccatoRest() {
-        event.makeRest();
+        event = Event.REST;
         channel.addRest(16);
         assertFalse(channel.makeNotStaccato(16));
         assertEquals(event, channel.getEvent(16));
@@ -165,7 +200,7 @@ public class InstrumentChannelTest {
 
     @Test
     void testMakeNotStaccatoNoteNotStaccato() {
-        event.makeNote(11);
+        event = Event.note(11);
         channel.addNote(3, 11);
         assertTrue(channel.makeNotStaccato(3));
         assertEquals(event, channel.getEvent(3));
@@ -173,7 +208,7 @@ public class InstrumentChannelTest {
 
     @Test
     void testMakeNotStaccatoNoteStaccato() {
-        event.makeNote(20);
+        event = Event.note(20);
         channel.addNote(12, 20);
         channel.makeStaccato(12);
         assertTrue(channel.makeNotStaccato(12));
@@ -220,10 +255,8 @@ public class InstrumentChannelTest {
         channel.addNote(4, 3);
         channel.addRest(5);
         channel.clear(3, 5);
-        Event rest = new Event();
-        rest.makeRest();
-        Event note = new Event();
-        note.makeNote(11);
+        Event rest = Event.REST;
+        Event note = Event.note(11);
         assertEquals(rest, channel.getEvent(1));
         assertEquals(note, channel.getEvent(2));
         assertEquals(event, channel.getEvent(3));
@@ -243,12 +276,9 @@ public class InstrumentChannelTest {
         channel.addRest(18);
         channel.clear(1, 7);
         channel.clear(11, 20);
-        Event rest = new Event();
-        rest.makeRest();
-        Event note1 = new Event();
-        note1.makeNote(6);
-        Event note2 = new Event();
-        note2.makeNote(10);
+        Event rest = Event.REST;
+        Event note1 = Event.note(6);
+        Event note2 = Event.note(10);
         assertEquals(event, channel.getEvent(1));
         assertEquals(event, channel.getEvent(4));
         assertEquals(rest, channel.getEvent(8));
@@ -288,22 +318,14 @@ public class InstrumentChannelTest {
         channel.addNote(14, 7);
         channel.addNote(17, Event.MAX_PITCH);
         channel.transpose(4);
-        Event e1 = new Event();
-        e1.makeNote(9);
-        Event e3 = new Event();
-        e3.makeNote(14);
-        Event e4 = new Event();
-        e4.makeRest();
-        Event e8 = new Event();
-        e8.makeNote(Event.MAX_PITCH - 10);
-        Event e10 = new Event();
-        e10.makeRest();
-        Event e11 = new Event();
-        e11.makeNote(Event.MAX_PITCH - 2);
-        Event e14 = new Event();
-        e14.makeNote(11);
-        Event e17 = new Event();
-        e17.makeNote(Event.MAX_PITCH - 8);
+        Event e1 = Event.note(9);
+        Event e3 = Event.note(14);
+        Event e4 = Event.REST;
+        Event e8 = Event.note(Event.MAX_PITCH - 10);
+        Event e10 = Event.REST;
+        Event e11 = Event.note(Event.MAX_PITCH - 2);
+        Event e14 = Event.note(11);
+        Event e17 = Event.note(Event.MAX_PITCH - 8);
         assertEquals(e1, channel.getEvent(1));
         assertEquals(e3, channel.getEvent(3));
         assertEquals(e4, channel.getEvent(4));
@@ -314,6 +336,33 @@ public class InstrumentChannelTest {
         assertEquals(e17, channel.getEvent(17));
     }
 
+    @Test
+    void testTransposeKeepsStaccato() {
+        channel.addNote(1, Event.MAX_PITCH);
+        channel.makeStaccato(1);
+        channel.transpose(3);
+        event = Event.note(Event.MAX_PITCH - 9);
+        event = event.withStaccato(true);
+        assertEquals(event, channel.getEvent(1));
+    }
+
+    @Test
+    void testGetEventShared() {
+        channel.addNote(2, 10);
+        channel.addNote(3, 10);
+        assertSame(channel.getEvent(2), channel.getEvent(3));
+        assertSame(Event.note(10), channel.getEvent(2));
+        assertSame(Event.BLANK, channel.getEvent(4));
+    }
+
+    @Test
+    void testSetEvent() {
+        channel.setEvent(5, Event.note(7, true));
+        assertSame(Event.note(7, true), channel.getEvent(5));
+        channel.setEvent(5, Event.REST);
+        assertSame(Event.REST, channel.getEvent(5));
+    }
+
     @Test
     void testTransposeTwo() {
         channel.addNote(1, 7);
@@ -325,22 +374,14 @@ public class InstrumentChannelTest {
         channel.addNote(15, 9);
         channel.addRest(16);
         channel.transpose(-6);
-        Event e1 = new Event();
-        e1.makeNote(1);
-        Event e2 = new Event();
-        e2.makeRest();
-        Event e5 = new Event();
-        e5.makeNote(Event.MAX_PITCH - 6);
-        Event e8 = new Event();
-        e8.makeNote(9);
-        Event e10 = new Event();
-        e10.makeNote(Event.MAX_PITCH - 10);
-        Event e13 = new Event();
-        e13.makeRest();
-        Event e15 = new Event();
-        e15.makeNote(3);
-        Event e16 = new Event();
-        e16.makeRest();
+        Event e1 = Event.note(1);
+        Event e2 = Event.REST;
+        Event e5 = Event.note(Event.MAX_PITCH - 6);
+        Event e8 = Event.note(9);
+        Event e10 = Event.note(Event.MAX_PITCH - 10);
+        Event e13 = Event.REST;
+        Event e15 = Event.note(3);
+        Event e16 = Event.REST;
         assertEquals(e1, channel.getEvent(1));
         assertEquals(e2, channel.getEvent(2));
         assertEquals(e5, channel.getEvent(5));
@@ -362,22 +403,14 @@ public class InstrumentChannelTest {
         channel.addNote(14, 3);
         channel.addNote(17, Event.MAX_PITCH - 6);
         channel.transposeUpByOctave();
-        Event e1 = new Event();
-        e1.makeNote(Event.MAX_PITCH);
-        Event e3 = new Event();
-        e3.makeNote(16);
-        Event e4 = new Event();
-        e4.makeRest();
-        Event e8 = new Event();
-        e8.makeNote(Event.MAX_PITCH);
-        Event e10 = new Event();
-        e10.makeRest();
-        Event e11 = new Event();
-        e11.makeNote(13);
-        Event e14 = new Event();
-        e14.makeNote(15);
-        Event e17 = new Event();
-        e17.makeNote(Event.MAX_PITCH - 6);
+        Event e1 = Event.note(Event.MAX_PITCH);
+        Event e3 = Event.note(16);
+        Event e4 = Event.REST;
+        Event e8 = Event.note(Event.MAX_PITCH);
+        Event e10 = Event.REST;
+        Event e11 = Event.note(13);
+        Event e14 = Event.note(15);
+        Event e17 = Event.note(Event.MAX_PITCH - 6);
         assertEquals(e1, channel.getEvent(1));
         assertEquals(e3, channel.getEvent(3));
         assertEquals(e4, channel.getEvent(4));
@@ -399,22 +432,14 @@ public class InstrumentChannelTest {
         channel.addNote(15, Event.MAX_PITCH - 3);
         channel.addRest(16);
         channel.transposeDownByOctave();
-        Event e1 = new Event();
-        e1.makeNote(5);
-        Event e2 = new Event();
-        e2.makeRest();
-        Event e5 = new Event();
-        e5.makeNote(Event.MAX_PITCH - 12);
-        Event e8 = new Event();
-        e8.makeNote(1);
-        Event e10 = new Event();
-        e10.makeNote(8);
-        Event e13 = new Event();
-        e13.makeRest();
-        Event e15 = new Event();
-        e15.makeNote(Event.MAX_PITCH - 15);
-        Event e16 = new Event();
-        e16.makeRest();
+        Event e1 = Event.note(5);
+        Event e2 = Event.REST;
+        Event e5 = Event.note(Event.MAX_PITCH - 12);
+        Event e8 = Event.note(1);
+        Event e10 = Event.note(8);
+        Event e13 = Event.REST;
+        Event e15 = Event.note(Event.MAX_PITCH - 15);
+        Event e16 = Event.REST;
         assertEquals(e1, channel.getEvent(1));
         assertEquals(e2, channel.getEvent(2));
         assertEquals(e5, channel.getEvent(5));
@@ -491,4 +516,192 @@ public class InstrumentChannelTest {
         assertEquals(channel, channel);
         assertEquals(channel.hashCode(), channel.hashCode());
     }
+
+    @Test
+    void testBlankBarsSharePattern() {
+        channel.addBars(100);
+        assertEquals(1, channel.numberOfPatterns());
+        channel.addNote(InstrumentChannel.ROWS_PER_BAR + 1, 10);
+        assertEquals(2, channel.numberOfPatterns());
+        assertEquals(event, channel.getEvent(1));
+        assertEquals(event, channel.getEvent(2 * InstrumentChannel.ROWS_PER_BAR + 1));
+    }
+
+    @Test
+    void testDeduplicateBars() {
+        channel.addBars(2);
+        for (int bar = 0; bar < 4; bar++) {
+            channel.addNote(bar * InstrumentChannel.ROWS_PER_BAR + 3, 10);
+        }
+        assertEquals(4, channel.numberOfPatterns());
+        channel.deduplicateBars();
+        assertEquals(1, channel.numberOfPatterns());
+        for (int bar = 0; bar < 4; bar++) {
+            assertEquals(Event.note(10), channel.getEvent(bar * InstrumentChannel.ROWS_PER_BAR + 3));
+        }
+    }
+
+    @Test
+    void testSharedPatternCopyOnWrite() {
+        channel.addNote(3, 10);
+        channel.addNote(InstrumentChannel.ROWS_PER_BAR + 3, 10);
+        channel.deduplicateBars();
+        channel.addRest(InstrumentChannel.ROWS_PER_BAR + 5);
+        assertEquals(2, channel.numberOfPatterns());
+        assertEquals(event, channel.getEvent(5));
+        assertEquals(Event.REST, channel.getEvent(InstrumentChannel.ROWS_PER_BAR + 5));
+        assertEquals(Event.note(10), channel.getEvent(3));
+        assertEquals(Event.note(10), channel.getEvent(InstrumentChannel.ROWS_PER_BAR + 3));
+    }
+
+    @Test
+    void testSetBars() {
+        channel.addBars(1);
+        Event[] pattern = new Event[InstrumentChannel.ROWS_PER_BAR];
+        Arrays.fill(pattern, Event.BLANK);
+        pattern[0] = Event.note(5, true);
+        Event[] blankPattern = pattern.clone();
+        blankPattern[0] = Event.BLANK;
+        channel.setBars(Arrays.asList(pattern, blankPattern), new int[]{0, 1, 0});
+        assertEquals(2, channel.numberOfPatterns());
+        assertEquals(Event.note(5, true), channel.getEvent(1));
+        assertEquals(event, channel.getEvent(InstrumentChannel.ROWS_PER_BAR + 1));
+        assertEquals(Event.note(5, true), channel.getEvent(2 * InstrumentChannel.ROWS_PER_BAR + 1));
+        channel.clear(1);
+        assertEquals(Event.note(5, true), channel.getEvent(2 * InstrumentChannel.ROWS_PER_BAR + 1));
+    }
+
+    @Test
+    void testTransposeKeepsSharing() {
+        channel.addNote(1, 10);
+        channel.addNote(InstrumentChannel.ROWS_PER_BAR + 1, 10);
+        channel.deduplicateBars();
+        channel.transpose(2);
+        assertEquals(1, channel.numberOfPatterns());
+        assertEquals(Event.note(12), channel.getEvent(1));
+        assertEquals(Event.note(12), channel.getEvent(InstrumentChannel.ROWS_PER_BAR + 1));
+    }
+
+    @Test
+    void testClearPartialBars() {
+        channel.addBars(1);
+        for (int row = 1; row <= channel.numberOfRows(); row++) {
+            channel.addRest(row);
+        }
+        channel.clear(10, 2 * InstrumentChannel.ROWS_PER_BAR + 3);
+        assertEquals(Event.REST, channel.getEvent(9));
+        assertEquals(event, channel.getEvent(10));
+        assertEquals(event, channel.getEvent(2 * InstrumentChannel.ROWS_PER_BAR + 3));
+        assertEquals(Event.REST, channel.getEvent(2 * InstrumentChannel.ROWS_PER_BAR + 4));
+        assertEquals(3, channel.numberOfPatterns());
+    }
+
+    @Test
+    void testNextEventRow() {
+        channel.addBars(98);
+        int numRows = channel.numberOfRows();
+        assertEquals(numRows + 1, channel.nextEventRow(1));
+        channel.addNote(5, 10);
+        channel.addRest(50 * InstrumentChannel.ROWS_PER_BAR + 2);
+        channel.addNote(numRows, 20);
+        assertEquals(5, channel.nextEventRow(1));
+        assertEquals(5, channel.nextEventRow(5));
+        assertEquals(50 * InstrumentChannel.ROWS_PER_BAR + 2, channel.nextEventRow(6));
+        assertEquals(numRows, channel.nextEventRow(50 * InstrumentChannel.ROWS_PER_BAR + 3));
+        assertEquals(numRows + 1, channel.nextEventRow(numRows + 1));
+        channel.clear(numRows);
+        assertEquals(numRows + 1, channel.nextEventRow(50 * InstrumentChannel.ROWS_PER_BAR + 3));
+        channel.removeBars(60);
+        assertEquals(channel.numberOfRows() + 1, channel.nextEventRow(6));
+    }
+
+    @Test
+    void testNextEventRowAfterEdits() {
+        channel.addBars(18);
+        int rowsPerBar = InstrumentChannel.ROWS_PER_BAR;
+        assertEquals(channel.numberOfRows() + 1, channel.nextEventRow(1));
+        channel.addNote(10 * rowsPerBar + 1, 10);
+        assertNextEventRows();
+        channel.addNote(4 * rowsPerBar + 3, 10);
+        assertNextEventRows();
+        channel.addRest(15 * rowsPerBar + 16);
+        assertNextEventRows();
+        channel.clear(4 * rowsPerBar + 3);
+        assertNextEventRows();
+        channel.addNote(2, 10);
+        channel.addNote(rowsPerBar + 2, 10);
+        assertNextEventRows();
+        channel.clear(2, 11 * rowsPerBar);
+        assertNextEventRows();
+        channel.clear(15 * rowsPerBar + 16);
+        assertNextEventRows();
+    }
+
+    // EFFECTS: checks nextEventRow for every row of the channel against a scan of its events
+    private void assertNextEventRows() {
+        int expected = channel.numberOfRows() + 1;
+        for (int row = channel.numberOfRows(); row >= 1; row--) {
+            if (channel.getEvent(row) != Event.BLANK) {
+                expected = row;
+            }
+            assertEquals(expected, channel.nextEventRow(row));
+        }
+    }
+
+    @Test
+    void testClearedBarSharesBlankPattern() {
+        channel.addBars(10);
+        channel.addNote(3, 10);
+        channel.addNote(20, 10);
+        assertEquals(3, channel.numberOfPatterns());
+        channel.clear(3);
+        channel.clear(17, 20);
+        assertEquals(1, channel.numberOfPatterns());
+        assertEquals(channel.numberOfRows() + 1, channel.nextEventRow(1));
+    }
+
+    @Test
+    void testToJsonSparsePattern() {
+        channel.addNote(3, 10);
+        for (int row = InstrumentChannel.ROWS_PER_BAR + 1; row <= 2 * InstrumentChannel.ROWS_PER_BAR; row++) {
+            channel.addRest(row);
+        }
+        JSONArray patterns = channel.toJson().getJSONArray("patterns");
+        JSONObject sparse = patterns.getJSONObject(0);
+        assertEquals(1, sparse.getJSONArray("offsets").length());
+        assertEquals(2, sparse.getJSONArray("offsets").getInt(0));
+        assertEquals(InstrumentChannel.ROWS_PER_BAR, patterns.getJSONArray(1).length());
+    }
+
+    @Test
+    void testTransposeRange() {
+        channel.addBars(2);
+        for (int row = 1; row <= channel.numberOfRows(); row++) {
+            channel.addNote(row, 10);
+        }
+        channel.addRest(20);
+        channel.transpose(5, 40, 3);
+        assertEquals(Event.note(10), channel.getEvent(4));
+        assertEquals(Event.note(13), channel.getEvent(5));
+        assertEquals(Event.REST, channel.getEvent(20));
+        assertEquals(Event.note(13), channel.getEvent(40));
+        assertEquals(Event.note(10), channel.getEvent(41));
+    }
+
+    @Test
+    void testTransposeRangeSharedPattern() {
+        channel.addBars(1);
+        for (int bar = 0; bar < 3; bar++) {
+            channel.addNote(bar * InstrumentChannel.ROWS_PER_BAR + 1, 10);
+            channel.addNote(bar * InstrumentChannel.ROWS_PER_BAR + 9, 20);
+        }
+        channel.deduplicateBars();
+        channel.transpose(5, 2 * InstrumentChannel.ROWS_PER_BAR, 1);
+        assertEquals(Event.note(10), channel.getEvent(1));
+        assertEquals(Event.note(21), channel.getEvent(9));
+        assertEquals(Event.note(11), channel.getEvent(InstrumentChannel.ROWS_PER_BAR + 1));
+        assertEquals(Event.note(21), channel.getEvent(InstrumentChannel.ROWS_PER_BAR + 9));
+        assertEquals(Event.note(10), channel.getEvent(2 * InstrumentChannel.ROWS_PER_BAR + 1));
+        assertEquals(Event.note(20), channel.getEvent(2 * InstrumentChannel.ROWS_PER_BAR + 9));
+    }
 }
@@ -3,6 +3,8 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TrackTest {
@@ -22,7 +24,16 @@ class TrackTest {
     @BeforeEach
     void setup() {
         track = new Track("track");
-        event = new Event();
+        event = Event.BLANK;
+    }
+
+    @Test
+    void testSetNumberOfBars() {
+        track.setNumberOfBars(500);
+        assertEquals(500, track.numberOfBars());
+        assertEquals(500 * InstrumentChannel.ROWS_PER_BAR, track.numberOfRows());
+        track.setNumberOfBars(1);
+        assertEquals(1, track.numberOfBars());
     }
 
     @Test
@@ -31,10 +42,10 @@ class TrackTest {
         assertEquals("track", track.getName());
         assertEquals(Track.DEFAULT_BPM, track.getTempo());
         for (int i = 1; i <= InstrumentChannel.INITIAL_NUM_OF_BARS * InstrumentChannel.ROWS_PER_BAR; i++) {
-            assertEquals(event, track.getEvent("pulse1", i));
-            assertEquals(event, track.getEvent("pulse2", i));
-            assertEquals(event, track.getEvent("triangle", i));
-            assertEquals(event, track.getEvent("noise", i));
+            assertEquals(event, track.getEvent(Channel.PULSE1, i));
+            assertEquals(event, track.getEvent(Channel.PULSE2, i));
+            assertEquals(event, track.getEvent(Channel.TRIANGLE, i));
+            assertEquals(event, track.getEvent(Channel.NOISE, i));
         }
     }
 
@@ -103,201 +114,191 @@ class TrackTest {
 
     @Test
     void testGetEventBlank() {
-        event.clear();
-        track.clear("pulse1", 1);
-        assertEquals(event, track.getEvent("pulse1", 1));
+        event = Event.BLANK;
+        track.clear(Channel.PULSE1, 1);
+        assertEquals(event, track.getEvent(Channel.PULSE1, 1));
     }
 
     @Test
     void testGetEventRest() {
-        event.makeRest();
-        track.addRest("pulse2", 5);
-        assertEquals(event, track.getEvent("pulse2", 5));
+        event = Event.REST;
+        track.addRest(Channel.PULSE2, 5);
+        assertEquals(event, track.getEvent(Channel.PULSE2, 5));
     }
 
     @Test
     void testGetEventNote() {
-        event.makeNote(1);
-        track.addNote("triangle", 10, 1);
-        assertEquals(event, track.getEvent("triangle", 10));
+        event = Event.note(1);
+        track.addNote(Channel.TRIANGLE, 10, 1);
+        assertEquals(event, track.getEvent(Channel.TRIANGLE, 10));
     }
 
     @Test
     void testAddRest() {
-        event.makeRest();
-        track.addRest("noise", 12);
-        assertEquals(event, track.getEvent("noise", 12));
+        event = Event.REST;
+        track.addRest(Channel.NOISE, 12);
+        assertEquals(event, track.getEvent(Channel.NOISE, 12));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testAddNote() {
-        event.makeNote(10);
-        track.addNote("pulse1", 3, 10);
-        assertEquals(event, track.getEvent("pulse1", 3));
+        event = Event.note(10);
+        track.addNote(Channel.PULSE1, 3, 10);
+        assertEquals(event, track.getEvent(Channel.PULSE1, 3));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testAddNoteMultiple() {
         for (int i = 1; i <= 32; i++) {
-            track.addNote("pulse1", i, i);
-            track.addNote("pulse2", i, i);
-            track.addNote("triangle", i, i);
-            track.addNote("noise", i, i);
+            track.addNote(Channel.PULSE1, i, i);
+            track.addNote(Channel.PULSE2, i, i);
+            track.addNote(Channel.TRIANGLE, i, i);
+            track.addNote(Channel.NOISE, i, i);
         }
         for (int i = 1; i <= 32; i++) {
-            event.makeNote(i);
-            assertEquals(event, track.getEvent("pulse1", i));
-            assertEquals(event, track.getEvent("pulse2", i));
-            assertEquals(event, track.getEvent("triangle", i));
-            assertEquals(event, track.getEvent("noise", i));
+            event = Event.note(i);
+            assertEquals(event, track.getEvent(Channel.PULSE1, i));
+            assertEquals(event, track.getEvent(Channel.PULSE2, i));
+            assertEquals(event, track.getEvent(Channel.TRIANGLE, i));
+            assertEquals(event, track.getEvent(Channel.NOISE, i));
         }
     }
 
     @Test
     void testMakeStaccatoBlank() {
-        assertFalse(track.makeStaccato("pulse2", 8));
-        assertEquals(event, track.getEvent("pulse2", 8));
+        assertFalse(track.makeStaccato(Channel.PULSE2, 8));
+        assertEquals(event, track.getEvent(Channel.PULSE2, 8));
     }
 
     @Test
     void testMakeStaccatoRest() {
-        event.makeRest();
-        track.addRest("triangle", 10);
-        assertFalse(track.makeStaccato("triangle", 10));
-        assertEquals(event, track.getEvent("triangle", 10));
+        event = Event.REST;
+        track.addRest(Channel.TRIANGLE, 10);
+        assertFalse(track.makeStaccato(Channel.TRIANGLE, 10));
+        assertEquals(event, track.getEvent(Channel.TRIANGLE, 10));
     }
 
     @Test
     void testMakeStaccatoNote() {
-        event.makeNote(5);
-        event.makeStaccato();
-        track.addNote("noise", 2, 5);
-        assertTrue(track.makeStaccato("noise", 2));
-        assertEquals(event, track.getEvent("noise", 2));
+        event = Event.note(5);
+        event = event.withStaccato(true);
+        track.addNote(Channel.NOISE, 2, 5);
+        assertTrue(track.makeStaccato(Channel.NOISE, 2));
+        assertEquals(event, track.getEvent(Channel.NOISE, 2));
     }
 
     @Test
     void testMakeStaccatoNoteAlreadyStaccato() {
-        event.makeNote(4);
-        event.makeStaccato();
-        track.addNote("pulse1", 16, 4);
-        track.makeStaccato("pulse1", 16);
-        assertTrue(track.makeStaccato("pulse1", 16));
-        assertEquals(event, track.getEvent("pulse1", 16));
+        event = Event.note(4);
+        event = event.withStaccato(true);
+        track.addNote(Channel.PULSE1, 16, 4);
+        track.makeStaccato(Channel.PULSE1, 16);
+        assertTrue(track.makeStaccato(Channel.PULSE1, 16));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 16));
     }
 
     @Test
     void testMakeNotStaccatoBlank() {
-        assertFalse(track.makeNotStaccato("pulse2", 14));
-        assertEquals(event, track.getEvent("pulse2", 14));
+        assertFalse(track.makeNotStaccato(Channel.PULSE2, 14));
+        assertEquals(event, track.getEvent(Channel.PULSE2, 14));
     }
 
     @Test
     void testMakeNotStaccatoRest() {
-        event.makeRest();
-        track.addRest("triangle", 16);
-        assertFalse(track.makeNotStaccato("triangle", 16));
-        assertEquals(event, track.getEvent("triangle", 16));
+        event = Event.REST;
+        track.addRest(Channel.TRIANGLE, 16);
+        assertFalse(track.makeNotStaccato(Channel.TRIANGLE, 16));
+        assertEquals(event, track.getEvent(Channel.TRIANGLE, 16));
     }
 
     @Test
     void testMakeNotStaccatoNoteNotStaccato() {
-        event.makeNote(11);
-        track.addNote("noise", 3, 11);
-        assertTrue(track.makeNotStaccato("noise", 3));
-        assertEquals(event, track.getEvent("noise", 3));
+        event = Event.note(11);
+        track.addNote(Channel.NOISE, 3, 11);
+        assertTrue(track.makeNotStaccato(Channel.NOISE, 3));
+        assertEquals(event, track.getEvent(Channel.NOISE, 3));
     }
 
     @Test
     void testMakeNotStaccatoNoteStaccato() {
-        event.makeNote(20);
-        track.addNote("pulse1", 12, 20);
-        track.makeStaccato("pulse1", 12);
-        assertTrue(track.makeNotStaccato("pulse1", 12));
-        assertEquals(event, track.getEvent("pulse1", 12));
+        event = Event.note(20);
+        track.addNote(Channel.PULSE1, 12, 20);
+        track.makeStaccato(Channel.PULSE1, 12);
+        assertTrue(track.makeNotStaccato(Channel.PULSE1, 12));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 12));
     }
 
     @Test
     void testClearBlank() {
-        track.clear("pulse2", 7);
-        assertEquals(event, track.getEvent("pulse2", 7));
+        track.clear(Channel.PULSE2, 7);
+        assertEquals(event, track.getEvent(Channel.PULSE2, 7));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testClearRest() {
-        track.addRest("triangle", 7);
-        track.clear("triangle", 7);
-        assertEquals(event, track.getEvent("triangle", 7));
+        track.addRest(Channel.TRIANGLE, 7);
+        track.clear(Channel.TRIANGLE, 7);
+        assertEquals(event, track.getEvent(Channel.TRIANGLE, 7));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testClearNote() {
-        track.addNote("noise", 7, 9);
-        track.clear("noise", 7);
-        assertEquals(event, track.getEvent("noise", 7));
+        track.addNote(Channel.NOISE, 7, 9);
+        track.clear(Channel.NOISE, 7);
+        assertEquals(event, track.getEvent(Channel.NOISE, 7));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testClearStaccatoNote() {
-        track.addNote("pulse1", 7, 9);
-        track.makeStaccato("pulse1", 7);
-        track.clear("pulse1", 7);
-        assertEquals(event, track.getEvent("pulse1", 7));
+        track.addNote(Channel.PULSE1, 7, 9);
+        track.makeStaccato(Channel.PULSE1, 7);
+        track.clear(Channel.PULSE1, 7);
+        assertEquals(event, track.getEvent(Channel.PULSE1, 7));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     void setupTrackTemplate() {
-        track.addNote("pulse1", 3, Event.MAX_PITCH - 3);
-        track.addRest("pulse1", 7);
-        track.addNote("pulse1", 10, Event.MAX_PITCH);
-        track.addNote("pulse2", 2, 5);
-        track.addNote("pulse2", 4, 3);
-        track.addNote("triangle", 1, Event.MAX_PITCH - 12);
-        track.addRest("triangle", 8);
-        track.addNote("noise", 5, 11);
-        track.addNote("noise", 6, 1);
-        track.addRest("noise", 9);
-        e1 = new Event();
-        e1.makeNote(Event.MAX_PITCH - 3);
-        e2 = new Event();
-        e2.makeRest();
-        e3 = new Event();
-        e3.makeNote(Event.MAX_PITCH);
-        e4 = new Event();
-        e4.makeNote(5);
-        e5 = new Event();
-        e5.makeNote(3);
-        e6 = new Event();
-        e6.makeNote(Event.MAX_PITCH - 12);
-        e7 = new Event();
-        e7.makeRest();
-        e8 = new Event();
-        e8.makeNote(11);
-        e9 = new Event();
-        e9.makeNote(1);
-        e10 = new Event();
-        e10.makeRest();
+        track.addNote(Channel.PULSE1, 3, Event.MAX_PITCH - 3);
+        track.addRest(Channel.PULSE1, 7);
+        track.addNote(Channel.PULSE1, 10, Event.MAX_PITCH);
+        track.addNote(Channel.PULSE2, 2, 5);
+        track.addNote(Channel.PULSE2, 4, 3);
+        track.addNote(Channel.TRIANGLE, 1, Event.MAX_PITCH - 12);
+        track.addRest(Channel.TRIANGLE, 8);
+        track.addNote(Channel.NOISE, 5, 11);
+        track.addNote(Channel.NOISE, 6, 1);
+        track.addRest(Channel.NOISE, 9);
+        e1 = Event.note(Event.MAX_PITCH - 3);
+        e2 = Event.REST;
+        e3 = Event.note(Event.MAX_PITCH);
+        e4 = Event.note(5);
+        e5 = Event.note(3);
+        e6 = Event.note(Event.MAX_PITCH - 12);
+        e7 = Event.REST;
+        e8 = Event.note(11);
+        e9 = Event.note(1);
+        e10 = Event.REST;
     }
 
     @Test
     void testClearRowsInChannel() {
         setupTrackTemplate();
-        track.clear("pulse1", 6, 10);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(event, track.getEvent("pulse1", 7));
-        assertEquals(event, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        track.clear(Channel.PULSE1, 6, 10);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
@@ -305,33 +306,33 @@ class TrackTest {
     void testClearRows() {
         setupTrackTemplate();
         track.clear(6, 10);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(event, track.getEvent("pulse1", 7));
-        assertEquals(event, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(event, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(event, track.getEvent("noise", 6));
-        assertEquals(event, track.getEvent("noise", 9));
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(event, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(event, track.getEvent(Channel.NOISE, 6));
+        assertEquals(event, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testClearChannel() {
         setupTrackTemplate();
-        track.clear("pulse1");
-        assertEquals(event, track.getEvent("pulse1", 3));
-        assertEquals(event, track.getEvent("pulse1", 7));
-        assertEquals(event, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        track.clear(Channel.PULSE1);
+        assertEquals(event, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
@@ -339,54 +340,54 @@ class TrackTest {
     void testClearTrack() {
         setupTrackTemplate();
         track.clear();
-        assertEquals(event, track.getEvent("pulse1", 3));
-        assertEquals(event, track.getEvent("pulse1", 7));
-        assertEquals(event, track.getEvent("pulse1", 10));
-        assertEquals(event, track.getEvent("pulse2", 2));
-        assertEquals(event, track.getEvent("pulse2", 4));
-        assertEquals(event, track.getEvent("triangle", 1));
-        assertEquals(event, track.getEvent("triangle", 8));
-        assertEquals(event, track.getEvent("noise", 5));
-        assertEquals(event, track.getEvent("noise", 6));
-        assertEquals(event, track.getEvent("noise", 9));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(event, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(event, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(event, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(event, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(event, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(event, track.getEvent(Channel.NOISE, 5));
+        assertEquals(event, track.getEvent(Channel.NOISE, 6));
+        assertEquals(event, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testTransposeChannelOne() {
         setupTrackTemplate();
-        track.transpose("pulse1", 2);
-        e1.makeNote(Event.MAX_PITCH - 1);
-        e3.makeNote(Event.MAX_PITCH - 10);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        track.transpose(Channel.PULSE1, 2);
+        e1 = Event.note(Event.MAX_PITCH - 1);
+        e3 = Event.note(Event.MAX_PITCH - 10);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testTransposeChannelTwo() {
         setupTrackTemplate();
-        track.transpose("noise", -4);
-        e8.makeNote(7);
-        e9.makeNote(9);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        track.transpose(Channel.NOISE, -4);
+        e8 = Event.note(7);
+        e9 = Event.note(9);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
@@ -394,23 +395,23 @@ class TrackTest {
     void testTransposeTrackOne() {
         setupTrackTemplate();
         track.transpose(5);
-        e1.makeNote(Event.MAX_PITCH - 10);
-        e3.makeNote(Event.MAX_PITCH - 7);
-        e4.makeNote(10);
-        e5.makeNote(8);
-        e6.makeNote(Event.MAX_PITCH - 7);
-        e8.makeNote(16);
-        e9.makeNote(6);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        e1 = Event.note(Event.MAX_PITCH - 10);
+        e3 = Event.note(Event.MAX_PITCH - 7);
+        e4 = Event.note(10);
+        e5 = Event.note(8);
+        e6 = Event.note(Event.MAX_PITCH - 7);
+        e8 = Event.note(16);
+        e9 = Event.note(6);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
@@ -418,41 +419,41 @@ class TrackTest {
     void testTransposeTrackTwo() {
         setupTrackTemplate();
         track.transpose(-4);
-        e1.makeNote(Event.MAX_PITCH - 7);
-        e3.makeNote(Event.MAX_PITCH - 4);
-        e4.makeNote(1);
-        e5.makeNote(11);
-        e6.makeNote(Event.MAX_PITCH - 16);
-        e8.makeNote(7);
-        e9.makeNote(9);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        e1 = Event.note(Event.MAX_PITCH - 7);
+        e3 = Event.note(Event.MAX_PITCH - 4);
+        e4 = Event.note(1);
+        e5 = Event.note(11);
+        e6 = Event.note(Event.MAX_PITCH - 16);
+        e8 = Event.note(7);
+        e9 = Event.note(9);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testTransposeUpByOctaveChannel() {
         setupTrackTemplate();
-        track.transposeUpByOctave("triangle");
-        e6.makeNote(Event.MAX_PITCH);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        track.transposeUpByOctave(Channel.TRIANGLE);
+        e6 = Event.note(Event.MAX_PITCH);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
@@ -460,38 +461,38 @@ class TrackTest {
     void testTransposeUpByOctaveTrack() {
         setupTrackTemplate();
         track.transposeUpByOctave();
-        e4.makeNote(17);
-        e5.makeNote(15);
-        e6.makeNote(Event.MAX_PITCH);
-        e8.makeNote(23);
-        e9.makeNote(13);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        e4 = Event.note(17);
+        e5 = Event.note(15);
+        e6 = Event.note(Event.MAX_PITCH);
+        e8 = Event.note(23);
+        e9 = Event.note(13);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
     @Test
     void testTransposeDownByOctaveChannel() {
         setupTrackTemplate();
-        track.transposeDownByOctave("pulse2");
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        track.transposeDownByOctave(Channel.PULSE2);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
@@ -499,19 +500,19 @@ class TrackTest {
     void testTransposeDownByOctaveTrack() {
         setupTrackTemplate();
         track.transposeDownByOctave();
-        e1.makeNote(Event.MAX_PITCH - 15);
-        e3.makeNote(Event.MAX_PITCH - 12);
-        e6.makeNote(Event.MAX_PITCH - 24);
-        assertEquals(e1, track.getEvent("pulse1", 3));
-        assertEquals(e2, track.getEvent("pulse1", 7));
-        assertEquals(e3, track.getEvent("pulse1", 10));
-        assertEquals(e4, track.getEvent("pulse2", 2));
-        assertEquals(e5, track.getEvent("pulse2", 4));
-        assertEquals(e6, track.getEvent("triangle", 1));
-        assertEquals(e7, track.getEvent("triangle", 8));
-        assertEquals(e8, track.getEvent("noise", 5));
-        assertEquals(e9, track.getEvent("noise", 6));
-        assertEquals(e10, track.getEvent("noise", 9));
+        e1 = Event.note(Event.MAX_PITCH - 15);
+        e3 = Event.note(Event.MAX_PITCH - 12);
+        e6 = Event.note(Event.MAX_PITCH - 24);
+        assertEquals(e1, track.getEvent(Channel.PULSE1, 3));
+        assertEquals(e2, track.getEvent(Channel.PULSE1, 7));
+        assertEquals(e3, track.getEvent(Channel.PULSE1, 10));
+        assertEquals(e4, track.getEvent(Channel.PULSE2, 2));
+        assertEquals(e5, track.getEvent(Channel.PULSE2, 4));
+        assertEquals(e6, track.getEvent(Channel.TRIANGLE, 1));
+        assertEquals(e7, track.getEvent(Channel.TRIANGLE, 8));
+        assertEquals(e8, track.getEvent(Channel.NOISE, 5));
+        assertEquals(e9, track.getEvent(Channel.NOISE, 6));
+        assertEquals(e10, track.getEvent(Channel.NOISE, 9));
         assertEquals(InstrumentChannel.INITIAL_NUM_OF_BARS, track.numberOfBars());
     }
 
@@ -529,7 +530,7 @@ class TrackTest {
     void testEqualsPulse1Different() {
         Track track1 = new Track("track");
         Track track2 = new Track("track");
-        track2.addRest("pulse1", 1);
+        track2.addRest(Channel.PULSE1, 1);
         assertNotEquals(track1, track2);
     }
 
@@ -537,7 +538,7 @@ class TrackTest {
     void testEqualsPulse2Different() {
         Track track1 = new Track("track");
         Track track2 = new Track("track");
-        track2.addRest("pulse2", 1);
+        track2.addRest(Channel.PULSE2, 1);
         assertNotEquals(track1, track2);
     }
 
@@ -545,7 +546,7 @@ class TrackTest {
     void testEqualsTriangleDifferent() {
         Track track1 = new Track("track");
         Track track2 = new Track("track");
-        track2.addRest("triangle", 1);
+        track2.addRest(Channel.TRIANGLE, 1);
         assertNotEquals(track1, track2);
     }
 
@@ -553,7 +554,7 @@ class TrackTest {
     void testEqualsNoiseDifferent() {
         Track track1 = new Track("track");
         Track track2 = new Track("track");
-        track2.addRest("noise", 1);
+        track2.addRest(Channel.NOISE, 1);
         assertNotEquals(track1, track2);
     }
 
@@ -571,4 +572,128 @@ class TrackTest {
         assertEquals(track, track);
         assertEquals(track.hashCode(), track.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransposeRangeChannel() {
+        track.addNote(Channel.PULSE1, 3, 10);
+        track.addNote(Channel.PULSE1, 8, 10);
+        track.addNote(Channel.PULSE2, 3, 10);
+        track.transpose(Channel.PULSE1, 1, 5, -2);
+        assertEquals(Event.note(8), track.getEvent(Channel.PULSE1, 3));
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 8));
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE2, 3));
+    }
+
+    @Test
+    void testTransposeRangeChannels() {
+        for (Channel channel : Channel.values()) {
+            track.addNote(channel, 3, 10);
+            track.addNote(channel, 30, 10);
+        }
+        track.transpose(Arrays.asList(Channel.PULSE2, Channel.NOISE), 3, 29, 12);
+        assertEquals(Event.note(10), track.getEvent(Channel.PULSE1, 3));
+        assertEquals(Event.note(22), track.getEvent(Channel.PULSE2, 3));
+        assertEquals(Event.note(10), track.getEvent(Channel.TRIANGLE, 3));
+        assertEquals(Event.note(22), track.getEvent(Channel.NOISE, 3));
+        assertEquals(Event.note(10), track.getEvent(Channel.NOISE, 30));
+    }
+
+    @Test
+    void testTransposeRangeAllChannels() {
+        for (Channel channel : Channel.values()) {
+            track.addNote(channel, 16, 10);
+            track.addNote(channel, 17, 10);
+        }
+        track.transpose(17, 32, 1);
+        for (Channel channel : Channel.values()) {
+            assertEquals(Event.note(10), track.getEvent(channel, 16));
+            assertEquals(Event.note(11), track.getEvent(channel, 17));
+        }
+    }
+
+    @Test
+    void testLazyTrack() {
+        int[] numLoads = new int[1];
+        TrackLoader loader = t -> {
+            numLoads[0]++;
+            t.addNote(Channel.TRIANGLE, 40, 12);
+        };
+        Track lazy = new Track("lazy", 150, 3, loader);
+        lazy.setHistory(new EditHistory());
+        assertFalse(lazy.isLoaded());
+        assertEquals("lazy", lazy.getName());
+        assertEquals(150, lazy.getTempo());
+        assertEquals(3, lazy.numberOfBars());
+        assertEquals(3 * InstrumentChannel.ROWS_PER_BAR, lazy.numberOfRows());
+        assertEquals(0, numLoads[0]);
+        assertEquals(Event.note(12), lazy.getEvent(Channel.TRIANGLE, 40));
+        assertTrue(lazy.isLoaded());
+        assertFalse(lazy.getHistory().canUndo());
+        lazy.getEvent(Channel.PULSE1, 1);
+        assertEquals(1, numLoads[0]);
+        lazy.unload(loader);
+        assertFalse(lazy.isLoaded());
+        assertEquals(3, lazy.numberOfBars());
+        assertEquals(Event.note(12), lazy.getEvent(Channel.TRIANGLE, 40));
+        assertEquals(2, numLoads[0]);
+    }
+
+    @Test
+    void testLazyTrackLoaderFails() {
+        Track lazy = new Track("lazy", 150, 3, t -> {
+            throw new IllegalStateException();
+        });
+        assertThrows(IllegalStateException.class, () -> lazy.getEvent(Channel.PULSE1, 1));
+        assertFalse(lazy.isLoaded());
+        assertEquals(3, lazy.numberOfBars());
+    }
+
+    @Test
+    void testSnapshot() {
+        track.addNote(Channel.PULSE1, 1, 10);
+        track.addNote(Channel.NOISE, 17, 20);
+        Track snapshot = track.snapshot();
+        assertEquals(track, snapshot);
+        track.addNote(Channel.PULSE1, 2, 11);
+        track.transpose(3);
+        track.clear(Channel.NOISE);
+        track.addBars(1);
+        assertEquals(Event.note(10), snapshot.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.BLANK, snapshot.getEvent(Channel.PULSE1, 2));
+        assertEquals(Event.note(20), snapshot.getEvent(Channel.NOISE, 17));
+        assertEquals(2, snapshot.numberOfBars());
+        assertEquals(Event.note(13), track.getEvent(Channel.PULSE1, 1));
+        assertEquals(Event.note(14), track.getEvent(Channel.PULSE1, 2));
+        snapshot.addNote(Channel.PULSE1, 3, 12);
+        assertEquals(Event.BLANK, track.getEvent(Channel.PULSE1, 3));
+    }
+
+    @Test
+    void testVersion() {
+        long version = track.getVersion();
+        track.setName("renamed");
+        track.setTempo(90);
+        assertEquals(version, track.getVersion());
+        track.addNote(Channel.PULSE1, 1, 10);
+        assertTrue(track.getVersion() > version);
+        version = track.getVersion();
+        track.addBars(1);
+        assertTrue(track.getVersion() > version);
+        version = track.getVersion();
+        track.setHistory(new EditHistory());
+        track.transpose(2);
+        track.undo();
+        assertTrue(track.getVersion() > version);
+    }
+
+    @Test
+    void testVersionUnchangedByLoading() {
+        TrackLoader loader = t -> t.addNote(Channel.NOISE, 1, 5);
+        Track lazy = new Track("lazy", 150, 3, loader);
+        long version = lazy.getVersion();
+        lazy.getEvent(Channel.NOISE, 1);
+        lazy.unload(loader);
+        lazy.getEvent(Channel.NOISE, 1);
+        assertEquals(version, lazy.getVersion());
+    }
+}
@@ -223,4 +223,121 @@ public class TrackerTest {
         assertNull(tracker.get(0));
         assertNull(tracker.get(4));
     }
+
+    @Test
+    void testGetTrackAfterRename() {
+        tracker.add(track1);
+        tracker.add(track2);
+        tracker.renameTrack(track1, "renamed");
+        assertNull(tracker.getTrack("track1"));
+        assertFalse(tracker.hasTrackNamed("track1"));
+        assertSame(track1, tracker.getTrack("renamed"));
+        assertSame(track2, tracker.getTrack("track2"));
+    }
+
+    @Test
+    void testRenameAfterRemove() {
+        tracker.add(track1);
+        tracker.remove(1);
+        track1.setName("renamed");
+        assertFalse(tracker.hasTrackNamed("renamed"));
+        assertFalse(tracker.contains(track1));
+    }
+
+    @Test
+    void testGetTrackDuplicateNames() {
+        Track other = new Track("track1");
+        tracker.add(track1);
+        tracker.add(other);
+        assertSame(track1, tracker.getTrack("track1"));
+        tracker.removeTrack("track1");
+        assertSame(other, tracker.getTrack("track1"));
+        assertEquals(1, tracker.numberOfTracks());
+        tracker.removeTrack("track1");
+        assertFalse(tracker.hasTrackNamed("track1"));
+    }
+
+    @Test
+    void testRemoveTrackRemovesSameInstance() {
+        Track equalTrack = new Track("track1");
+        tracker.add(track1);
+        tracker.add(equalTrack);
+        tracker.renameTrack(equalTrack, "renamed");
+        tracker.renameTrack(track1, "renamed");
+        assertSame(equalTrack, tracker.getTrack("renamed"));
+        tracker.removeTrack("renamed");
+        assertFalse(tracker.contains(equalTrack));
+        assertTrue(tracker.contains(track1));
+        assertSame(track1, tracker.get(1));
+    }
+
+    @Test
+    void testRemoveTrackAfterListChanges() {
+        tracker.add(track1);
+        tracker.add(track2);
+        tracker.add(track3);
+        tracker.add(track2);
+        tracker.getTrackList().add(0, track3);
+        tracker.removeTrack("track1");
+        assertSame(track3, tracker.get(1));
+        assertSame(track2, tracker.get(2));
+        tracker.removeTrack("track2");
+        assertSame(track3, tracker.get(1));
+        assertSame(track3, tracker.get(2));
+        assertSame(track2, tracker.get(3));
+        tracker.remove(1);
+        tracker.removeTrack("track3");
+        assertEquals(1, tracker.numberOfTracks());
+        assertSame(track2, tracker.get(1));
+        tracker.removeTrack("track2");
+        assertEquals(0, tracker.numberOfTracks());
+        assertFalse(tracker.contains(track2));
+    }
+
+    @Test
+    void testRenameTrackAddedTwice() {
+        tracker.add(track1);
+        tracker.add(track2);
+        tracker.add(track1);
+        tracker.renameTrack(track1, "renamed");
+        assertEquals("renamed", track1.getName());
+        assertFalse(tracker.hasTrackNamed("track1"));
+        tracker.removeTrack("renamed");
+        assertSame(track2, tracker.get(1));
+        assertSame(track1, tracker.get(2));
+        tracker.removeTrack("renamed");
+        assertFalse(tracker.hasTrackNamed("renamed"));
+        assertEquals(1, tracker.numberOfTracks());
+    }
+
+    @Test
+    void testContainsIsIdentity() {
+        tracker.add(track1);
+        assertTrue(tracker.contains(track1));
+        assertFalse(tracker.contains(new Track("track1")));
+    }
+
+    @Test
+    void testContainsSameTrackTwice() {
+        tracker.add(track1);
+        tracker.add(track1);
+        tracker.remove(1);
+        assertTrue(tracker.contains(track1));
+        tracker.renameTrack(track1, "renamed");
+        assertSame(track1, tracker.getTrack("renamed"));
+        tracker.remove(1);
+        assertFalse(tracker.contains(track1));
+        assertFalse(tracker.hasTrackNamed("renamed"));
+    }
+
+    @Test
+    void testTrackListUpdatesIndex() {
+        tracker.getTrackList().add(track1);
+        tracker.getTrackList().set(0, track2);
+        assertFalse(tracker.contains(track1));
+        assertSame(track2, tracker.getTrack("track2"));
+        tracker.getTrackList().remove(track2);
+        assertFalse(tracker.hasTrackNamed("track2"));
+        assertEquals(0, tracker.numberOfTracks());
+    }
 }
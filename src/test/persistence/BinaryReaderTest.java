@@ -0,0 +1,87 @@
+package persistence;
+
+import model.Channel;
+import model.Event;
+import model.Track;
+import model.Tracker;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryReaderTest {
+    private static final String CORRUPT_FILE = "./data/testReaderCorruptTracker.dat";
+
+    @Test
+    void testReaderNonExistentFile() {
+        BinaryReader reader = new BinaryReader("./data/noSuchFile.dat");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderNotTrackerFile() {
+        BinaryReader reader = new BinaryReader("./data/testReaderGeneralTracker.json");
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderUnsupportedVersion() {
+        assertCorrupt(ByteBuffer.allocate(BinaryWriter.HEADER_SIZE + 4).putInt(BinaryWriter.MAGIC)
+                .putInt(BinaryWriter.VERSION + 1).putLong(BinaryWriter.HEADER_SIZE).putInt(0).array());
+    }
+
+    @Test
+    void testReaderBadDirectoryOffset() {
+        assertCorrupt(ByteBuffer.allocate(BinaryWriter.HEADER_SIZE + 4).putInt(BinaryWriter.MAGIC)
+                .putInt(BinaryWriter.VERSION).putLong(1000).putInt(0).array());
+    }
+
+    @Test
+    void testReaderTruncatedFile() {
+        try {
+            Tracker tracker = new Tracker();
+            Track track = new Track("track");
+            track.addNote(Channel.PULSE1, 1, 10);
+            tracker.add(track);
+            BinaryWriter writer = new BinaryWriter(CORRUPT_FILE);
+            writer.open();
+            writer.write(tracker);
+            writer.close();
+            byte[] bytes = Files.readAllBytes(Paths.get(CORRUPT_FILE));
+            assertEquals(track, new BinaryReader(CORRUPT_FILE).read().get(1));
+            assertCorrupt(ByteBuffer.allocate(bytes.length - 8).put(bytes, 0, bytes.length - 8).array());
+            bytes[BinaryWriter.HEADER_SIZE + 4] = (byte) Event.NUM_EVENTS;
+            assertCorrupt(bytes);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    void assertCorrupt(byte[] bytes) {
+        try {
+            Files.write(Paths.get(CORRUPT_FILE), bytes);
+        } catch (IOException e) {
+            fail("Couldn't write to file");
+        }
+        try {
+            new BinaryReader(CORRUPT_FILE).read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package persistence;
+
+import model.Channel;
+import model.Event;
+import model.InstrumentChannel;
+import model.Track;
+import model.Tracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryWriterTest {
+    Tracker tracker;
+
+    @BeforeEach
+    void setup() {
+        tracker = new Tracker();
+    }
+
+    @Test
+    void testWriterInvalidFile() {
+        try {
+            BinaryWriter writer = new BinaryWriter("./data/my\0illegal:fileName.dat");
+            writer.open();
+            fail("IOException was expected");
+        } catch (IOException | RuntimeException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testWriterEmptyTracker() {
+        try {
+            BinaryWriter writer = new BinaryWriter("./data/testWriterEmptyTracker.dat");
+            writer.open();
+            writer.write(tracker);
+            writer.close();
+
+            BinaryReader reader = new BinaryReader("./data/testWriterEmptyTracker.dat");
+            tracker = reader.read();
+            assertEquals(0, tracker.numberOfTracks());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    void setupGeneralTracks(Track track1, Track track2) {
+        track1.setTempo(100);
+        track2.addBars(1);
+        track1.addNote(Channel.PULSE1, 3, Event.MAX_PITCH - 3);
+        track1.makeStaccato(Channel.PULSE1, 3);
+        track2.addRest(Channel.PULSE1, 7);
+        track1.addNote(Channel.PULSE1, 10, Event.MAX_PITCH);
+        track2.addNote(Channel.PULSE2, 2, 5);
+        track2.makeStaccato(Channel.PULSE2, 3);
+        track1.addNote(Channel.PULSE2, 4, 3);
+        track2.addNote(Channel.TRIANGLE, 1, Event.MAX_PITCH - 12);
+        track1.addRest(Channel.TRIANGLE, 8);
+        track2.addNote(Channel.NOISE, 5, 11);
+        track2.makeStaccato(Channel.NOISE, 5);
+        track1.addNote(Channel.NOISE, 6, 1);
+        track2.addRest(Channel.NOISE, 9);
+    }
+
+    @Test
+    void testWriterGeneralTracker() {
+        try {
+            Track track1 = new Track("track1");
+            Track track2 = new Track("träck 2");
+            setupGeneralTracks(track1, track2);
+            tracker.add(track1);
+            tracker.add(track2);
+            BinaryWriter writer = new BinaryWriter("./data/testWriterGeneralTracker.dat");
+            writer.open();
+            writer.write(tracker);
+            writer.close();
+
+            BinaryReader reader = new BinaryReader("./data/testWriterGeneralTracker.dat");
+            tracker = reader.read();
+            assertEquals(2, tracker.numberOfTracks());
+            Track testTrack1 = new Track("track1");
+            Track testTrack2 = new Track("träck 2");
+            setupGeneralTracks(testTrack1, testTrack2);
+            assertEquals(testTrack1, tracker.get(1));
+            assertEquals(testTrack2, tracker.get(2));
+            assertEquals(100, tracker.get(1).getTempo());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterRepeatedBars() {
+        try {
+            Track track = new Track("track");
+            track.setNumberOfBars(64);
+            for (int bar = 0; bar < 64; bar += 2) {
+                track.addNote(Channel.PULSE1, bar * InstrumentChannel.ROWS_PER_BAR + 1, 10);
+            }
+            tracker.add(track);
+            BinaryWriter writer = new BinaryWriter("./data/testWriterRepeatedBars.dat");
+            writer.open();
+            writer.write(tracker);
+            writer.close();
+
+            BinaryReader reader = new BinaryReader("./data/testWriterRepeatedBars.dat");
+            tracker = reader.read();
+            assertEquals(track, tracker.get(1));
+            assertEquals(2, tracker.get(1).numberOfPatterns(Channel.PULSE1));
+            assertEquals(1, tracker.get(1).numberOfPatterns(Channel.NOISE));
+            assertTrue(new File("./data/testWriterRepeatedBars.dat").length() < 2000);
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+}
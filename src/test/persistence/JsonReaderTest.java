@@ -1,7 +1,10 @@
 package persistence;
 
+import model.Channel;
+import model.Event;
 import model.Track;
 import model.Tracker;
+import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -37,17 +40,17 @@ public class JsonReaderTest {
 
     void setupGeneralTracks(Track track1, Track track2) {
         track1.removeBars(1);
-        track1.addNote("pulse1", 1, 1);
-        track1.addNote("pulse2", 3, 10);
-        track1.addRest("pulse2", 1);
-        track1.addNote("triangle", 14, 7);
-        track1.addNote("noise", 8, 11);
+        track1.addNote(Channel.PULSE1, 1, 1);
+        track1.addNote(Channel.PULSE2, 3, 10);
+        track1.addRest(Channel.PULSE2, 1);
+        track1.addNote(Channel.TRIANGLE, 14, 7);
+        track1.addNote(Channel.NOISE, 8, 11);
         track2.setTempo(150);
-        track2.addNote("pulse1", 3, 6);
-        track2.addNote("pulse2", 1, 9);
-        track2.addNote("triangle", 20, 17);
-        track2.addNote("noise", 7, 13);
-        track2.addRest("noise", 15);
+        track2.addNote(Channel.PULSE1, 3, 6);
+        track2.addNote(Channel.PULSE2, 1, 9);
+        track2.addNote(Channel.TRIANGLE, 20, 17);
+        track2.addNote(Channel.NOISE, 7, 13);
+        track2.addRest(Channel.NOISE, 15);
     }
 
     @Test
@@ -61,8 +64,132 @@ public class JsonReaderTest {
             setupGeneralTracks(testTrack1, testTrack2);
             assertEquals(testTrack1, tracker.get(1));
             assertEquals(testTrack2, tracker.get(2));
+            assertEquals(1, tracker.get(1).numberOfPatterns(Channel.PULSE1));
+            assertEquals(2, tracker.get(2).numberOfPatterns(Channel.PULSE1));
         } catch (IOException e) {
             fail("Couldn't read from file");
         }
     }
+
+    @Test
+    void testReaderReorderedTracker() {
+        JsonReader reader = new JsonReader("./data/testReaderReorderedTracker.json");
+        try {
+            tracker = reader.read();
+            assertEquals(1, tracker.numberOfTracks());
+            Track track = tracker.get(1);
+            assertEquals("track \"one\"", track.getName());
+            assertEquals(90, track.getTempo());
+            assertEquals(2, track.numberOfBars());
+            assertEquals(Event.note(5), track.getEvent(Channel.PULSE1, 17));
+            assertEquals(Event.REST, track.getEvent(Channel.PULSE1, 19));
+            assertEquals(Event.note(12, true), track.getEvent(Channel.PULSE2, 32));
+            assertEquals(Event.BLANK, track.getEvent(Channel.PULSE2, 16));
+            assertEquals(1, track.numberOfPatterns(Channel.PULSE1));
+            assertEquals(new Track("blank").numberOfPatterns(Channel.NOISE), track.numberOfPatterns(Channel.NOISE));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderMalformedTracker() {
+        JsonReader reader = new JsonReader("./data/testReaderMalformedTracker.json");
+        try {
+            reader.read();
+            fail("JSONException expected");
+        } catch (JSONException e) {
+            // pass
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderBadOffsetTracker() {
+        JsonReader reader = new JsonReader("./data/testReaderBadOffsetTracker.json");
+        try {
+            reader.read();
+            fail("JSONException expected");
+        } catch (JSONException e) {
+            // pass
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderBadOrderListTracker() {
+        JsonReader reader = new JsonReader("./data/testReaderBadOrderListTracker.json");
+        try {
+            reader.read();
+            fail("JSONException expected");
+        } catch (JSONException e) {
+            // pass
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderShortOrderListTracker() {
+        JsonReader reader = new JsonReader("./data/testReaderShortOrderListTracker.json");
+        try {
+            reader.read();
+            fail("JSONException expected");
+        } catch (JSONException e) {
+            // pass
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderPitchZeroTracker() {
+        assertReadFails("./data/testReaderPitchZeroTracker.json");
+    }
+
+    @Test
+    void testReaderPitchTooHighTracker() {
+        assertReadFails("./data/testReaderPitchTooHighTracker.json");
+    }
+
+    @Test
+    void testReaderNegativePitchTracker() {
+        assertReadFails("./data/testReaderNegativePitchTracker.json");
+    }
+
+    @Test
+    void testReaderBadTempoTracker() {
+        assertReadFails("./data/testReaderBadTempoTracker.json");
+    }
+
+    @Test
+    void testReaderNoBarsTracker() {
+        assertReadFails("./data/testReaderNoBarsTracker.json");
+    }
+
+    @Test
+    void testReaderBadEscapeTracker() {
+        assertReadFails("./data/testReaderBadEscapeTracker.json");
+    }
+
+    @Test
+    void testReaderOversizedNumberTracker() {
+        JSONException e = assertReadFails("./data/testReaderOversizedNumberTracker.json");
+        assertTrue(e.getMessage().contains("does not fit in an int"));
+    }
+
+    // EFFECTS: fails unless reading the file at source throws JSONException, returns the exception
+    private JSONException assertReadFails(String source) {
+        JsonReader reader = new JsonReader(source);
+        try {
+            reader.read();
+        } catch (JSONException e) {
+            return e;
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+        return fail("JSONException expected");
+    }
 }
@@ -1,6 +1,8 @@
 package persistence;
 
+import model.Channel;
 import model.Event;
+import model.InstrumentChannel;
 import model.Track;
 import model.Tracker;
 import org.junit.jupiter.api.BeforeEach;
@@ -49,19 +51,19 @@ public class JsonWriterTest {
     void setupGeneralTracks(Track track1, Track track2) {
         track1.setTempo(100);
         track2.addBars(1);
-        track1.addNote("pulse1", 3, Event.MAX_PITCH - 3);
-        track1.makeStaccato("pulse1", 3);
-        track2.addRest("pulse1", 7);
-        track1.addNote("pulse1", 10, Event.MAX_PITCH);
-        track2.addNote("pulse2", 2, 5);
-        track2.makeStaccato("pulse2", 3);
-        track1.addNote("pulse2", 4, 3);
-        track2.addNote("triangle", 1, Event.MAX_PITCH - 12);
-        track1.addRest("triangle", 8);
-        track2.addNote("noise", 5, 11);
-        track2.makeStaccato("noise", 5);
-        track1.addNote("noise", 6, 1);
-        track2.addRest("noise", 9);
+        track1.addNote(Channel.PULSE1, 3, Event.MAX_PITCH - 3);
+        track1.makeStaccato(Channel.PULSE1, 3);
+        track2.addRest(Channel.PULSE1, 7);
+        track1.addNote(Channel.PULSE1, 10, Event.MAX_PITCH);
+        track2.addNote(Channel.PULSE2, 2, 5);
+        track2.makeStaccato(Channel.PULSE2, 3);
+        track1.addNote(Channel.PULSE2, 4, 3);
+        track2.addNote(Channel.TRIANGLE, 1, Event.MAX_PITCH - 12);
+        track1.addRest(Channel.TRIANGLE, 8);
+        track2.addNote(Channel.NOISE, 5, 11);
+        track2.makeStaccato(Channel.NOISE, 5);
+        track1.addNote(Channel.NOISE, 6, 1);
+        track2.addRest(Channel.NOISE, 9);
     }
 
     @Test
@@ -89,4 +91,28 @@ public class JsonWriterTest {
             fail("Exception should not have been thrown");
         }
     }
+
+    @Test
+    void testWriterRepeatedBars() {
+        try {
+            Track track = new Track("track");
+            track.setNumberOfBars(64);
+            for (int bar = 0; bar < 64; bar += 2) {
+                track.addNote(Channel.PULSE1, bar * InstrumentChannel.ROWS_PER_BAR + 1, 10);
+            }
+            tracker.add(track);
+            JsonWriter writer = new JsonWriter("./data/testWriterRepeatedBars.json");
+            writer.open();
+            writer.write(tracker);
+            writer.close();
+
+            JsonReader reader = new JsonReader("./data/testWriterRepeatedBars.json");
+            tracker = reader.read();
+            assertEquals(track, tracker.get(1));
+            assertEquals(2, tracker.get(1).numberOfPatterns(Channel.PULSE1));
+            assertEquals(1, tracker.get(1).numberOfPatterns(Channel.NOISE));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
 }
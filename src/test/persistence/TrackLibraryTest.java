@@ -0,0 +1,362 @@
+package persistence;
+
+import model.Channel;
+import model.Event;
+import model.Track;
+import model.Tracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrackLibraryTest {
+    private static final String LIBRARY_FILE = "./data/testLibraryTracker.dat";
+    private static final int NUM_TRACKS = 5;
+
+    Tracker expected;
+    BlockingQueue<Runnable> callbacks;
+    int numCompleted;
+    IOException failure;
+    SaveListener listener;
+
+    @BeforeEach
+    void setup() {
+        callbacks = new LinkedBlockingQueue<>();
+        numCompleted = 0;
+        failure = null;
+        listener = new SaveListener() {
+            @Override
+            public void saveCompleted() {
+                numCompleted++;
+            }
+
+            @Override
+            public void saveFailed(IOException e) {
+                failure = e;
+            }
+        };
+        expected = new Tracker();
+        for (int i = 1; i <= NUM_TRACKS; i++) {
+            Track track = new Track("track" + i);
+            track.setTempo(100 + i);
+            track.setNumberOfBars(i + 1);
+            track.addNote(Channel.PULSE1, i, 10 + i);
+            track.addRest(Channel.NOISE, 2 * i);
+            expected.add(track);
+        }
+        try {
+            BinaryWriter writer = new BinaryWriter(LIBRARY_FILE);
+            writer.open();
+            writer.write(expected);
+            writer.close();
+        } catch (IOException e) {
+            fail("Couldn't write to file");
+        }
+    }
+
+    @Test
+    void testLibraryNonExistentFile() {
+        try {
+            new TrackLibrary("./data/noSuchFile.dat", 2).open();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testLibraryNotTrackerFile() {
+        try {
+            new TrackLibrary("./data/testReaderGeneralTracker.json", 2).open();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testLibraryOpenReadsDirectoryOnly() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2);
+            Tracker tracker = library.open();
+            assertEquals(NUM_TRACKS, tracker.numberOfTracks());
+            for (int i = 1; i <= NUM_TRACKS; i++) {
+                Track track = tracker.get(i);
+                assertFalse(track.isLoaded());
+                assertEquals("track" + i, track.getName());
+                assertEquals(100 + i, track.getTempo());
+                assertEquals(i + 1, track.numberOfBars());
+            }
+            assertEquals(0, library.numberOfResidentTracks());
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibraryLoadsAndEvictsTracks() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2);
+            Tracker tracker = library.open();
+            for (int i = 1; i <= NUM_TRACKS; i++) {
+                assertEquals(expected.get(i), tracker.get(i));
+                assertTrue(library.numberOfResidentTracks() <= 2);
+            }
+            assertFalse(tracker.get(1).isLoaded());
+            assertTrue(tracker.get(NUM_TRACKS).isLoaded());
+            assertEquals(expected.get(1), tracker.get(1));
+            assertTrue(tracker.get(1).isLoaded());
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibraryKeepsRecentlyUsedTrack() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2);
+            Tracker tracker = library.open();
+            tracker.get(1).getEvent(Channel.PULSE1, 1);
+            tracker.get(2).getEvent(Channel.PULSE1, 1);
+            library.use(tracker.get(1));
+            tracker.get(3).getEvent(Channel.PULSE1, 1);
+            assertTrue(tracker.get(1).isLoaded());
+            assertFalse(tracker.get(2).isLoaded());
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibraryKeepsEditedTrack() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 1);
+            Tracker tracker = library.open();
+            tracker.get(1).addNote(Channel.TRIANGLE, 5, 20);
+            for (int i = 2; i <= NUM_TRACKS; i++) {
+                tracker.get(i).getEvent(Channel.PULSE1, 1);
+            }
+            assertTrue(tracker.get(1).isLoaded());
+            assertEquals(Event.note(20), tracker.get(1).getEvent(Channel.TRIANGLE, 5));
+            assertEquals(2, library.numberOfResidentTracks());
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibraryReadsAfterFileReplaced() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2);
+            Tracker tracker = library.open();
+            BinaryWriter writer = new BinaryWriter(LIBRARY_FILE);
+            writer.open();
+            writer.write(new Tracker());
+            writer.close();
+            assertEquals(expected.get(3), tracker.get(3));
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibrarySaveWritesEditedTracksOnly() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2);
+            Tracker tracker = library.open();
+            long size = new File(LIBRARY_FILE).length();
+            library.save(tracker);
+            long directorySize = new File(LIBRARY_FILE).length() - size;
+            assertTrue(directorySize < size / 2);
+            tracker.get(2).addNote(Channel.TRIANGLE, 5, 20);
+            tracker.renameTrack(tracker.get(4), "renamed");
+            library.save(tracker);
+            long growth = new File(LIBRARY_FILE).length() - size - directorySize;
+            assertTrue(growth > directorySize && growth < 2 * directorySize + size / NUM_TRACKS);
+            assertFalse(tracker.get(3).isLoaded());
+            library.close();
+
+            tracker = new TrackLibrary(LIBRARY_FILE, 2).open();
+            expected.get(2).addNote(Channel.TRIANGLE, 5, 20);
+            expected.renameTrack(expected.get(4), "renamed");
+            for (int i = 1; i <= NUM_TRACKS; i++) {
+                assertEquals(expected.get(i), tracker.get(i));
+            }
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibrarySaveAddsAndRemovesTracks() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2);
+            Tracker tracker = library.open();
+            long size = new File(LIBRARY_FILE).length();
+            for (int i = 0; i < NUM_TRACKS - 1; i++) {
+                tracker.remove(1);
+                expected.remove(1);
+            }
+            tracker.addTrack("new");
+            expected.addTrack("new");
+            library.save(tracker);
+            assertTrue(new File(LIBRARY_FILE).length() < size);
+            assertEquals(expected.get(1), tracker.get(1));
+            library.close();
+
+            tracker = new TrackLibrary(LIBRARY_FILE, 2).open();
+            assertEquals(2, tracker.numberOfTracks());
+            assertEquals(expected.get(1), tracker.get(1));
+            assertEquals(expected.get(2), tracker.get(2));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibrarySaveWithoutFile() {
+        try {
+            new File(LIBRARY_FILE).delete();
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2);
+            library.save(expected);
+            assertEquals(2, library.numberOfResidentTracks());
+            Tracker tracker = new TrackLibrary(LIBRARY_FILE, 2).open();
+            assertEquals(NUM_TRACKS, tracker.numberOfTracks());
+            assertEquals(expected.get(5), tracker.get(5));
+            assertEquals(expected.get(1), tracker.get(1));
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibraryUnloadsSavedTracks() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 1);
+            Tracker tracker = library.open();
+            tracker.get(1).addNote(Channel.TRIANGLE, 5, 20);
+            tracker.get(2).addNote(Channel.TRIANGLE, 5, 20);
+            assertEquals(2, library.numberOfResidentTracks());
+            library.save(tracker);
+            assertEquals(1, library.numberOfResidentTracks());
+            assertFalse(tracker.get(1).isLoaded());
+            assertEquals(Event.note(20), tracker.get(1).getEvent(Channel.TRIANGLE, 5));
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibrarySaveInBackground() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2, callbacks::add);
+            Tracker tracker = library.open();
+            tracker.get(1).addNote(Channel.TRIANGLE, 1, 30);
+            library.saveInBackground(tracker, listener);
+            assertTrue(library.isSaving());
+            tracker.get(2).addNote(Channel.TRIANGLE, 1, 31);
+            runNextCallback();
+            assertFalse(library.isSaving());
+            assertEquals(1, numCompleted);
+            assertNull(failure);
+
+            Tracker saved = new TrackLibrary(LIBRARY_FILE, 2).open();
+            assertEquals(tracker.get(1), saved.get(1));
+            assertEquals(expected.get(2), saved.get(2));
+            assertFalse(new File(LIBRARY_FILE + ".tmp").exists());
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibrarySaveInBackgroundIgnoresLaterEdits() {
+        try {
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2, callbacks::add);
+            Tracker tracker = library.open();
+            Track track = tracker.get(1);
+            track.addNote(Channel.PULSE1, 2, 30);
+            Track edited = track.snapshot();
+            library.saveInBackground(tracker, listener);
+            track.addNote(Channel.PULSE1, 3, 31);
+            track.transpose(2);
+            tracker.get(2).addNote(Channel.PULSE1, 2, 32);
+            runNextCallback();
+            assertEquals(1, numCompleted);
+
+            Tracker saved = new TrackLibrary(LIBRARY_FILE, 2).open();
+            assertEquals(edited, saved.get(1));
+            assertEquals(expected.get(2), saved.get(2));
+            library.save(tracker);
+            saved = new TrackLibrary(LIBRARY_FILE, 2).open();
+            assertEquals(track, saved.get(1));
+            assertEquals(tracker.get(2), saved.get(2));
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibrarySaveInBackgroundWhileSaving() {
+        try {
+            new File(LIBRARY_FILE).delete();
+            TrackLibrary library = new TrackLibrary(LIBRARY_FILE, 2, callbacks::add);
+            library.saveInBackground(expected, listener);
+            expected.get(3).addNote(Channel.TRIANGLE, 1, 32);
+            library.saveInBackground(expected, listener);
+            library.saveInBackground(expected, listener);
+            runNextCallback();
+            assertEquals(1, numCompleted);
+            assertTrue(library.isSaving());
+            runNextCallback();
+            assertEquals(3, numCompleted);
+            assertFalse(library.isSaving());
+            assertTrue(callbacks.isEmpty());
+
+            Tracker saved = new TrackLibrary(LIBRARY_FILE, 2).open();
+            assertEquals(NUM_TRACKS, saved.numberOfTracks());
+            assertEquals(expected.get(3), saved.get(3));
+            assertFalse(new File(LIBRARY_FILE + ".tmp").exists());
+            library.close();
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testLibrarySaveInBackgroundFails() {
+        TrackLibrary library = new TrackLibrary("./data/noSuchDirectory/tracker.dat", 2, callbacks::add);
+        library.saveInBackground(expected, listener);
+        runNextCallback();
+        assertFalse(library.isSaving());
+        assertEquals(0, numCompleted);
+        assertNotNull(failure);
+        assertFalse(new File("./data/noSuchDirectory").exists());
+    }
+
+    // EFFECTS: waits for the save running in the background to finish writing and runs the task it hands back
+    private void runNextCallback() {
+        try {
+            Runnable callback = callbacks.poll(10, TimeUnit.SECONDS);
+            assertNotNull(callback);
+            callback.run();
+        } catch (InterruptedException e) {
+            fail("Interrupted while waiting for the save");
+        }
+    }
+}